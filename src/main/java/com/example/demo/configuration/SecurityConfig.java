@@ -1,13 +1,16 @@
 package com.example.demo.configuration;
 
 import com.example.demo.filter.JwtRequestFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.config.http.SessionCreationPolicy;
 
@@ -33,6 +36,9 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())  // Disable CSRF protection since JWT tokens handle it
                 .authorizeHttpRequests(authorize ->
                         authorize
+                                // Async dispatches (e.g. completing /api/tasks/stream) continue a request that was
+                                // already authenticated; the stateless JWT filter does not run for them
+                                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                                 .requestMatchers("/api/register", "/api/login", "/api/admin/registerAdmin").permitAll()  // Public endpoints
                                 .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()  // Allow all preflight requests (OPTIONS)
                                 .requestMatchers("/v3/api-docs/**", "/swagger-ui/**").permitAll() // Allow access to Swagger UI and OpenAPI docs
@@ -41,6 +47,8 @@ public class SecurityConfig {
                 .sessionManagement(session ->
                         session.sessionCreationPolicy(SessionCreationPolicy.STATELESS)  // Stateless session (JWT)
                 )
+                // A missing, expired or invalid token answers 401
+                .exceptionHandling(exceptions -> exceptions.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
                 .addFilterBefore(jwtRequestFilter, UsernamePasswordAuthenticationFilter.class);  // Add JWT filter
 
         return http.build();
@@ -1,8 +1,10 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.CacheStatsDto;
 import com.example.demo.dto.CommonApiResponse;
 import com.example.demo.dto.UserDto;
 import com.example.demo.dto.UserRegistrationDto;
+import com.example.demo.service.CacheStatisticsService;
 import com.example.demo.service.UserService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -17,9 +19,11 @@ import java.util.Map;
 public class AdminController {
 
     private final UserService userService;
+    private final CacheStatisticsService cacheStatisticsService;
 
-    public AdminController(UserService userService) {
+    public AdminController(UserService userService, CacheStatisticsService cacheStatisticsService) {
         this.userService = userService;
+        this.cacheStatisticsService = cacheStatisticsService;
     }
 
     @GetMapping("/all")
@@ -48,4 +52,12 @@ public class AdminController {
         }
     }
 
+    // Hit/miss counters of the Hibernate second-level, natural-id and query caches
+    @GetMapping("/cache-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CommonApiResponse<CacheStatsDto>> getCacheStats() {
+        CacheStatsDto stats = cacheStatisticsService.getCacheStats();
+        return ResponseEntity.ok(new CommonApiResponse<>(HttpStatus.OK.value(), "Cache statistics retrieved successfully.", stats));
+    }
+
 }
@@ -50,7 +50,7 @@ public class AuthController {
             );
 
 
-            String token = jwtUtil.generateToken(userDetails.getUsername(), userDetails.getEmail(), userDetails.getRole().getName());
+            String token = jwtUtil.generateToken(userDetails.getId(), userDetails.getEmail(), userDetails.getRole().getName());
 
             LoginResponseDto loginResponseDto = new LoginResponseDto("Login successful.", token, userDetails.getName() , userDetails.getRole().getName(), userDetails.getEmail());
             return ResponseEntity.ok(new CommonApiResponse<>(HttpStatus.OK.value(), "Login successful.", loginResponseDto));
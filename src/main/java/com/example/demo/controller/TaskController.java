@@ -1,19 +1,42 @@
 package com.example.demo.controller;
 
 import com.example.demo.dto.CommonApiResponse;
+import com.example.demo.dto.tasks.BatchItemResultDto;
+import com.example.demo.dto.tasks.CompactTaskListDto;
+import com.example.demo.dto.tasks.TaskBulkUpdateDto;
+import com.example.demo.dto.tasks.TaskChangesDto;
+import com.example.demo.dto.tasks.TaskPageDto;
+import com.example.demo.dto.tasks.TaskQueryDto;
+import com.example.demo.dto.tasks.TaskQueryResultDto;
 import com.example.demo.dto.tasks.TaskResponseDto;
+import com.example.demo.dto.tasks.TaskSummaryDto;
 import com.example.demo.entity.Task;
+import com.example.demo.exception.ChangeCursorExpiredException;
+import com.example.demo.exception.TaskBatchValidationException;
 import com.example.demo.exception.TaskNotFoundException;
+import com.example.demo.exception.TaskVersionConflictException;
+import com.example.demo.service.TaskEventStream;
+import com.example.demo.service.TaskExportService;
 import com.example.demo.service.TaskService;
-import com.example.demo.util.JwtUtil;
+import com.example.demo.util.JwtPrincipal;
+import com.example.demo.util.TaskCursor;
 import io.jsonwebtoken.JwtException;
-import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -23,36 +46,53 @@ import java.util.Map;
 @CrossOrigin(origins = "http://localhost:3000")
 public class TaskController {
 
+    private static final Logger logger = LoggerFactory.getLogger(TaskController.class);
+
     @Autowired
     private TaskService taskService;
 
     @Autowired
-    private JwtUtil jwtUtil;
+    private TaskExportService taskExportService;
+
+    @Autowired
+    private TaskEventStream taskEventStream;
 
-    private String validateTokenAndGetEmail(HttpServletRequest request) {
-        String token = request.getHeader("Authorization");
-        if (token == null || !token.startsWith("Bearer ")) {
+    // The bearer token was already verified by JwtRequestFilter; read its claims instead of parsing it again
+    private JwtPrincipal getAuthenticatedPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof JwtPrincipal principal)) {
             throw new JwtException("Invalid or missing token.");
         }
-        String email = jwtUtil.extractUsername(token.substring(7));
-
-        if (email == null) {
+        if (principal.getUserId() == null) {
             throw new JwtException("Invalid token.");
         }
-        return email;
+        return principal;
+    }
+
+    // Conditional GET: the validator changes whenever any of the caller's tasks does, so a matching
+    // If-None-Match is answered with 304 after one read of the user's change counter and no task query.
+    // The user id is part of the tag so responses cached under another account never validate.
+    private boolean notModified(WebRequest webRequest, JwtPrincipal principal) {
+        long version = taskService.getTaskVersion(principal.getUserId());
+        return webRequest.checkNotModified("W/\"" + principal.getUserId() + "-" + version + "\"");
+    }
+
+    // view=compact keeps the owner at the top level; any other value expands to one TaskResponseDto per task
+    private static Object shape(CompactTaskListDto tasks, String view) {
+        return "compact".equalsIgnoreCase(view) ? tasks : tasks.expand();
     }
 
 
     @PostMapping
-    public ResponseEntity<CommonApiResponse<Task>> createTask(@RequestBody Task task, HttpServletRequest request) {
-        String email = validateTokenAndGetEmail(request);
+    public ResponseEntity<CommonApiResponse<Task>> createTask(@RequestBody Task task) {
+        JwtPrincipal principal = getAuthenticatedPrincipal();
 
-        if (email == null) {
+        if (principal == null) {
             CommonApiResponse<Task> commonApiResponse = new CommonApiResponse<>(HttpStatus.UNAUTHORIZED.value(), "Invalid token.", null);
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(commonApiResponse);
         }
         try {
-            Task createdTask = taskService.createTask(task, email);
+            Task createdTask = taskService.createTask(task, principal.getUserId());
             CommonApiResponse<Task> commonApiResponse = new CommonApiResponse<>(HttpStatus.CREATED.value(), "Task created successfully.", createdTask);
             return ResponseEntity.status(HttpStatus.CREATED).body(commonApiResponse);
         } catch (Exception e) {
@@ -62,43 +102,238 @@ public class TaskController {
     }
 
 
-    // Get all tasks for the authenticated user
+    // Create up to app.tasks.batch.max-size tasks at once. The batch is all-or-nothing: if any element is
+    // invalid nothing is created and the response lists the errors per index; otherwise every index gets its id.
+    @PostMapping("/batch")
+    public ResponseEntity<CommonApiResponse<List<BatchItemResultDto>>> createTasks(@RequestBody List<Task> tasks) {
+        JwtPrincipal principal = getAuthenticatedPrincipal();
+
+        if (principal == null) {
+            CommonApiResponse<List<BatchItemResultDto>> commonApiResponse = new CommonApiResponse<>(HttpStatus.UNAUTHORIZED.value(), "Invalid token.", null);
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(commonApiResponse);
+        }
+        try {
+            List<BatchItemResultDto> results = taskService.createTasks(tasks, principal.getUserId());
+            CommonApiResponse<List<BatchItemResultDto>> commonApiResponse = new CommonApiResponse<>(HttpStatus.CREATED.value(), results.size() + " tasks created successfully.", results);
+            return ResponseEntity.status(HttpStatus.CREATED).body(commonApiResponse);
+        } catch (TaskBatchValidationException e) {
+            CommonApiResponse<List<BatchItemResultDto>> commonApiResponse = new CommonApiResponse<>(HttpStatus.BAD_REQUEST.value(), e.getMessage(), e.getResults());
+            return ResponseEntity.badRequest().body(commonApiResponse);
+        } catch (IllegalArgumentException e) {
+            CommonApiResponse<List<BatchItemResultDto>> commonApiResponse = new CommonApiResponse<>(HttpStatus.BAD_REQUEST.value(), e.getMessage(), null);
+            return ResponseEntity.badRequest().body(commonApiResponse);
+        } catch (Exception e) {
+            logger.error("Batch task creation failed for user {}", principal.getUserId(), e);
+            CommonApiResponse<List<BatchItemResultDto>> commonApiResponse = new CommonApiResponse<>(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Task creation failed.", null);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(commonApiResponse);
+        }
+    }
+
+
+    // Get all tasks for the authenticated user.
+    // Passing cursor, size or sort (id | dueDate) switches to keyset pagination; the next page's cursor is
+    // returned in nextCursor. view=compact returns the owner once instead of inside every task.
     @GetMapping("/all-tasks")
-    public ResponseEntity<CommonApiResponse<List<TaskResponseDto>>> getAllTasks(HttpServletRequest request) {
-        String email = validateTokenAndGetEmail(request);
+    public ResponseEntity<CommonApiResponse<?>> getAllTasks(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String view,
+            WebRequest webRequest) {
+        JwtPrincipal principal = getAuthenticatedPrincipal();
 
         // Handle unauthorized access
-        if (email == null) {
-            CommonApiResponse<List<TaskResponseDto>> commonApiResponse = new CommonApiResponse<>(HttpStatus.UNAUTHORIZED.value(), "Invalid token.", null);
+        if (principal == null) {
+            CommonApiResponse<?> commonApiResponse = new CommonApiResponse<>(HttpStatus.UNAUTHORIZED.value(), "Invalid token.", null);
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(commonApiResponse);
         }
 
         try {
+            if (notModified(webRequest, principal)) {
+                return null;
+            }
+            if (cursor != null || size != null || sort != null) {
+                TaskPageDto page = taskService.getTaskPage(principal.toUserDto(), TaskCursor.Sort.from(sort), cursor, size);
+                CommonApiResponse<?> commonApiResponse = new CommonApiResponse<>(HttpStatus.OK.value(), "Tasks retrieved successfully.", shape(page.getTasks(), view), page.getNextCursor());
+                return ResponseEntity.ok(commonApiResponse);
+            }
             // Retrieve all tasks for the user
-            List<TaskResponseDto> tasks = taskService.getAllTasks(email);
-            CommonApiResponse<List<TaskResponseDto>> commonApiResponse = new CommonApiResponse<>(HttpStatus.OK.value(), "Tasks retrieved successfully.", tasks);
+            CompactTaskListDto tasks = taskService.getAllTasks(principal.toUserDto());
+            CommonApiResponse<?> commonApiResponse = new CommonApiResponse<>(HttpStatus.OK.value(), "Tasks retrieved successfully.", shape(tasks, view));
+            return ResponseEntity.ok(commonApiResponse);
+        } catch (IllegalArgumentException e) {
+            CommonApiResponse<?> commonApiResponse = new CommonApiResponse<>(HttpStatus.BAD_REQUEST.value(), e.getMessage(), null);
+            return ResponseEntity.badRequest().body(commonApiResponse);
+        } catch (Exception e) {
+            // Handle potential server error
+            CommonApiResponse<?> commonApiResponse = new CommonApiResponse<>(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Failed to retrieve tasks.", null);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(commonApiResponse);
+        }
+    }
+
+
+    // Dashboard query: any combination of completed, important, category, dueFrom/dueTo and
+    // minProgress/maxProgress, with sort=field,direction, page and size, plus per-filter counts
+    @GetMapping("/query")
+    public ResponseEntity<CommonApiResponse<TaskQueryResultDto>> queryTasks(TaskQueryDto query, WebRequest webRequest) {
+        JwtPrincipal principal = getAuthenticatedPrincipal();
+
+        // Handle unauthorized access
+        if (principal == null) {
+            CommonApiResponse<TaskQueryResultDto> commonApiResponse = new CommonApiResponse<>(HttpStatus.UNAUTHORIZED.value(), "Invalid token.", null);
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(commonApiResponse);
+        }
+
+        try {
+            if (notModified(webRequest, principal)) {
+                return null;
+            }
+            TaskQueryResultDto result = taskService.queryTasks(principal.toUserDto(), query);
+            CommonApiResponse<TaskQueryResultDto> commonApiResponse = new CommonApiResponse<>(HttpStatus.OK.value(), "Tasks retrieved successfully.", result);
             return ResponseEntity.ok(commonApiResponse);
+        } catch (IllegalArgumentException e) {
+            CommonApiResponse<TaskQueryResultDto> commonApiResponse = new CommonApiResponse<>(HttpStatus.BAD_REQUEST.value(), e.getMessage(), null);
+            return ResponseEntity.badRequest().body(commonApiResponse);
         } catch (Exception e) {
             // Handle potential server error
-            CommonApiResponse<List<TaskResponseDto>> commonApiResponse = new CommonApiResponse<>(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Failed to retrieve tasks.", null);
+            CommonApiResponse<TaskQueryResultDto> commonApiResponse = new CommonApiResponse<>(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Failed to retrieve tasks.", null);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(commonApiResponse);
         }
     }
 
 
+    // Server-sent events for the caller's task changes: created, updated and deleted (with the task id and,
+    // except for deletions, the new state), bulk-updated, plus "ready" on connect and "resync" when the
+    // connection fell too far behind and was closed. After a reconnect, /changes fills any gap.
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamTasks() {
+        JwtPrincipal principal = getAuthenticatedPrincipal();
+        SseEmitter emitter = taskEventStream.subscribe(principal.getUserId());
+        // Keep reverse proxies from buffering the stream
+        return ResponseEntity.ok().header("X-Accel-Buffering", "no").body(emitter);
+    }
+
+
+    // Delta sync: tasks created or updated and ids deleted since the "since" cursor (everything when omitted).
+    // Keep calling with the returned cursor while hasMore is true; an expired cursor answers 410 Gone,
+    // after which the client discards its copy and syncs again without a cursor.
+    @GetMapping("/changes")
+    public ResponseEntity<CommonApiResponse<TaskChangesDto>> getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Integer size) {
+        JwtPrincipal principal = getAuthenticatedPrincipal();
+
+        // Handle unauthorized access
+        if (principal == null) {
+            CommonApiResponse<TaskChangesDto> commonApiResponse = new CommonApiResponse<>(HttpStatus.UNAUTHORIZED.value(), "Invalid token.", null);
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(commonApiResponse);
+        }
+
+        try {
+            TaskChangesDto changes = taskService.getChanges(principal.getUserId(), since, size);
+            CommonApiResponse<TaskChangesDto> commonApiResponse = new CommonApiResponse<>(HttpStatus.OK.value(), "Changes retrieved successfully.", changes);
+            return ResponseEntity.ok(commonApiResponse);
+        } catch (ChangeCursorExpiredException e) {
+            CommonApiResponse<TaskChangesDto> commonApiResponse = new CommonApiResponse<>(HttpStatus.GONE.value(), e.getMessage(), null);
+            return ResponseEntity.status(HttpStatus.GONE).body(commonApiResponse);
+        } catch (IllegalArgumentException e) {
+            CommonApiResponse<TaskChangesDto> commonApiResponse = new CommonApiResponse<>(HttpStatus.BAD_REQUEST.value(), e.getMessage(), null);
+            return ResponseEntity.badRequest().body(commonApiResponse);
+        } catch (Exception e) {
+            // Handle potential server error
+            CommonApiResponse<TaskChangesDto> commonApiResponse = new CommonApiResponse<>(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Failed to retrieve changes.", null);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(commonApiResponse);
+        }
+    }
+
+
+    // Dashboard counts (total, completed, important, overdue, average progress, per category) without any
+    // task bodies. Conditional like the list endpoints, but "overdue" moves with the calendar, so the
+    // validator also carries the date.
+    @GetMapping("/summary")
+    public ResponseEntity<CommonApiResponse<TaskSummaryDto>> getSummary(WebRequest webRequest) {
+        JwtPrincipal principal = getAuthenticatedPrincipal();
+
+        // Handle unauthorized access
+        if (principal == null) {
+            CommonApiResponse<TaskSummaryDto> commonApiResponse = new CommonApiResponse<>(HttpStatus.UNAUTHORIZED.value(), "Invalid token.", null);
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(commonApiResponse);
+        }
+
+        try {
+            long version = taskService.getTaskVersion(principal.getUserId());
+            if (webRequest.checkNotModified("W/\"" + principal.getUserId() + "-" + version + "-" + LocalDate.now() + "\"")) {
+                return null;
+            }
+            TaskSummaryDto summary = taskService.getSummary(principal.getUserId());
+            CommonApiResponse<TaskSummaryDto> commonApiResponse = new CommonApiResponse<>(HttpStatus.OK.value(), "Summary retrieved successfully.", summary);
+            return ResponseEntity.ok(commonApiResponse);
+        } catch (Exception e) {
+            // Handle potential server error
+            CommonApiResponse<TaskSummaryDto> commonApiResponse = new CommonApiResponse<>(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Failed to retrieve summary.", null);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(commonApiResponse);
+        }
+    }
+
+
+    // Full export of the user's tasks as newline-delimited JSON (default) or CSV.
+    // The body is written row by row while the database cursor is read, so the response is not wrapped in
+    // CommonApiResponse; errors before the first byte still return one.
+    @GetMapping("/export")
+    public ResponseEntity<CommonApiResponse<Void>> exportTasks(
+            @RequestParam(required = false) String format, HttpServletResponse response) {
+        JwtPrincipal principal = getAuthenticatedPrincipal();
+
+        // Handle unauthorized access
+        if (principal == null) {
+            CommonApiResponse<Void> commonApiResponse = new CommonApiResponse<>(HttpStatus.UNAUTHORIZED.value(), "Invalid token.", null);
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(commonApiResponse);
+        }
+
+        TaskExportService.Format exportFormat;
+        try {
+            exportFormat = TaskExportService.Format.from(format);
+        } catch (IllegalArgumentException e) {
+            CommonApiResponse<Void> commonApiResponse = new CommonApiResponse<>(HttpStatus.BAD_REQUEST.value(), e.getMessage(), null);
+            return ResponseEntity.badRequest().body(commonApiResponse);
+        }
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"tasks." + exportFormat.getExtension() + "\"");
+        try {
+            taskExportService.export(principal.getUserId(), exportFormat, response.getOutputStream());
+        } catch (Exception e) {
+            // The status line has already been sent; all we can do is cut the stream short
+            logger.error("Task export failed for user {}", principal.getUserId(), e);
+            if (!response.isCommitted()) {
+                response.reset();
+                CommonApiResponse<Void> commonApiResponse = new CommonApiResponse<>(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Failed to export tasks.", null);
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(commonApiResponse);
+            }
+        }
+        // The body has been written directly; nothing left for Spring to render
+        return null;
+    }
+
+
     // Get a task by ID
     @GetMapping("/{id}")
-    public ResponseEntity<CommonApiResponse<TaskResponseDto>> getTaskById(@PathVariable Long id, HttpServletRequest request) {
-        String email = validateTokenAndGetEmail(request);
+    public ResponseEntity<CommonApiResponse<TaskResponseDto>> getTaskById(@PathVariable Long id, WebRequest webRequest) {
+        JwtPrincipal principal = getAuthenticatedPrincipal();
 
         // Handle unauthorized access
-        if (email == null) {
+        if (principal == null) {
             CommonApiResponse<TaskResponseDto> commonApiResponse = new CommonApiResponse<>(HttpStatus.UNAUTHORIZED.value(), "Invalid token.", null);
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(commonApiResponse);
         }
 
         try {
-            TaskResponseDto task = taskService.getTaskById(id, email);
+            if (notModified(webRequest, principal)) {
+                return null;
+            }
+            TaskResponseDto task = taskService.getTaskById(id, principal.getUserId());
             CommonApiResponse<TaskResponseDto> commonApiResponse = new CommonApiResponse<>(HttpStatus.OK.value(), "Task retrieved successfully.", task);
             return ResponseEntity.ok(commonApiResponse);
         } catch (TaskNotFoundException e) {
@@ -117,19 +352,19 @@ public class TaskController {
     }
 
 
-    // Update a task
+    // Update a task; a "version" older than the stored one is rejected with 409 instead of overwriting
     @PutMapping("/{id}")
-    public ResponseEntity<CommonApiResponse<Task>> updateTask(@PathVariable Long id, @RequestBody Task task, HttpServletRequest request) {
-        String email = validateTokenAndGetEmail(request);
+    public ResponseEntity<CommonApiResponse<Task>> updateTask(@PathVariable Long id, @RequestBody Task task) {
+        JwtPrincipal principal = getAuthenticatedPrincipal();
 
         // Handle unauthorized access
-        if (email == null) {
+        if (principal == null) {
             CommonApiResponse<Task> commonApiResponse = new CommonApiResponse<>(HttpStatus.UNAUTHORIZED.value(), "Invalid token.", null);
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(commonApiResponse);
         }
 
         try {
-            Task updatedTask = taskService.updateTask(id, task, email);
+            Task updatedTask = taskService.updateTask(id, task, principal.getUserId());
             // Create a success message response
             CommonApiResponse<Task> commonApiResponse = new CommonApiResponse<>(HttpStatus.OK.value(), "Task updated successfully.", updatedTask);
             return ResponseEntity.ok(commonApiResponse);
@@ -137,6 +372,10 @@ public class TaskController {
             // Return 404 Not Found with a user-friendly message
             CommonApiResponse<Task> commonApiResponse = new CommonApiResponse<>(HttpStatus.NOT_FOUND.value(), e.getMessage(), null);
             return ResponseEntity.ok().body(commonApiResponse);
+        } catch (TaskVersionConflictException e) {
+            // Stale version: the client must re-read the task and retry
+            CommonApiResponse<Task> commonApiResponse = new CommonApiResponse<>(HttpStatus.CONFLICT.value(), e.getMessage(), null);
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(commonApiResponse);
         } catch (Exception e) {
             // Handle unexpected errors
             CommonApiResponse<Task> commonApiResponse = new CommonApiResponse<>(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Failed to update the task.", null);
@@ -147,17 +386,17 @@ public class TaskController {
 
     // Delete a task
     @DeleteMapping("/{id}")
-    public ResponseEntity<CommonApiResponse<Void>> deleteTask(@PathVariable Long id, HttpServletRequest request) {
-        String email = validateTokenAndGetEmail(request);
+    public ResponseEntity<CommonApiResponse<Void>> deleteTask(@PathVariable Long id) {
+        JwtPrincipal principal = getAuthenticatedPrincipal();
 
         // Handle unauthorized access
-        if (email == null) {
+        if (principal == null) {
             CommonApiResponse<Void> commonApiResponse = new CommonApiResponse<>(HttpStatus.UNAUTHORIZED.value(), "Invalid token.", null);
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(commonApiResponse);
         }
 
         try {
-            taskService.deleteTask(id, email);
+            taskService.deleteTask(id, principal.getUserId());
             CommonApiResponse<Void> commonApiResponse = new CommonApiResponse<>(HttpStatus.OK.value(), "Task deleted successfully.", null);
             return ResponseEntity.ok(commonApiResponse);
         } catch (TaskNotFoundException e) {
@@ -174,23 +413,27 @@ public class TaskController {
 
     // Get tasks by completion status
     @GetMapping("/completed")
-    public ResponseEntity<CommonApiResponse<List<TaskResponseDto>>> getTasksByCompletion(
-            @RequestParam boolean completed, HttpServletRequest request) {
-        String email = validateTokenAndGetEmail(request);
+    public ResponseEntity<CommonApiResponse<?>> getTasksByCompletion(
+            @RequestParam boolean completed, @RequestParam(required = false) String view,
+            WebRequest webRequest) {
+        JwtPrincipal principal = getAuthenticatedPrincipal();
 
         // Handle unauthorized access
-        if (email == null) {
-            CommonApiResponse<List<TaskResponseDto>> commonApiResponse = new CommonApiResponse<>(HttpStatus.UNAUTHORIZED.value(), "Invalid token.", null);
+        if (principal == null) {
+            CommonApiResponse<?> commonApiResponse = new CommonApiResponse<>(HttpStatus.UNAUTHORIZED.value(), "Invalid token.", null);
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(commonApiResponse);
         }
 
         try {
-            List<TaskResponseDto> taskResponseDtos = taskService.getTasksByCompletion(email, completed);
-            CommonApiResponse<List<TaskResponseDto>> commonApiResponse = new CommonApiResponse<>(HttpStatus.OK.value(), "Tasks retrieved successfully.", taskResponseDtos);
+            if (notModified(webRequest, principal)) {
+                return null;
+            }
+            CompactTaskListDto tasks = taskService.getTasksByCompletion(principal.toUserDto(), completed);
+            CommonApiResponse<?> commonApiResponse = new CommonApiResponse<>(HttpStatus.OK.value(), "Tasks retrieved successfully.", shape(tasks, view));
             return ResponseEntity.ok(commonApiResponse);
         } catch (Exception e) {
             // Handle unexpected errors
-            CommonApiResponse<List<TaskResponseDto>> commonApiResponse = new CommonApiResponse<>(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Failed to retrieve tasks.", null);
+            CommonApiResponse<?> commonApiResponse = new CommonApiResponse<>(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Failed to retrieve tasks.", null);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(commonApiResponse);
         }
     }
@@ -198,38 +441,41 @@ public class TaskController {
 
     // Get tasks by importance status
     @GetMapping("/important")
-    public ResponseEntity<CommonApiResponse<List<TaskResponseDto>>> getTasksByImportance(
-            @RequestParam boolean important, HttpServletRequest request) {
-        String email = validateTokenAndGetEmail(request);
+    public ResponseEntity<CommonApiResponse<?>> getTasksByImportance(
+            @RequestParam boolean important, @RequestParam(required = false) String view,
+            WebRequest webRequest) {
+        JwtPrincipal principal = getAuthenticatedPrincipal();
 
         // Handle unauthorized access
-        if (email == null) {
-            CommonApiResponse<List<TaskResponseDto>> commonApiResponse = new CommonApiResponse<>(HttpStatus.UNAUTHORIZED.value(), "Invalid token.", null);
+        if (principal == null) {
+            CommonApiResponse<?> commonApiResponse = new CommonApiResponse<>(HttpStatus.UNAUTHORIZED.value(), "Invalid token.", null);
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(commonApiResponse);
         }
 
         try {
-            List<TaskResponseDto> taskResponseDtos = taskService.getTasksByImportance(email, important);
-            CommonApiResponse<List<TaskResponseDto>> commonApiResponse = new CommonApiResponse<>(HttpStatus.OK.value(), "Tasks retrieved successfully.", taskResponseDtos);
+            if (notModified(webRequest, principal)) {
+                return null;
+            }
+            CompactTaskListDto tasks = taskService.getTasksByImportance(principal.toUserDto(), important);
+            CommonApiResponse<?> commonApiResponse = new CommonApiResponse<>(HttpStatus.OK.value(), "Tasks retrieved successfully.", shape(tasks, view));
             return ResponseEntity.ok(commonApiResponse);
         } catch (Exception e) {
             // Handle unexpected errors
-            CommonApiResponse<List<TaskResponseDto>> commonApiResponse = new CommonApiResponse<>(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Failed to retrieve tasks.", null);
+            CommonApiResponse<?> commonApiResponse = new CommonApiResponse<>(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Failed to retrieve tasks.", null);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(commonApiResponse);
         }
     }
 
-    // PATCH: Update task completion or importance status
+    // PATCH: Update task completion or importance status; an optional "version" in the body makes it conditional
     @PatchMapping("/{id}")
     public ResponseEntity<CommonApiResponse<Task>> updateTaskStatus(
             @PathVariable Long id,
-            @RequestBody Map<String, Object> updates,
-            HttpServletRequest request) {
+            @RequestBody Map<String, Object> updates) {
 
-        String email = validateTokenAndGetEmail(request);
+        JwtPrincipal principal = getAuthenticatedPrincipal();
 
         // Handle unauthorized access
-        if (email == null) {
+        if (principal == null) {
             CommonApiResponse<Task> commonApiResponse = new CommonApiResponse<>(
                     HttpStatus.UNAUTHORIZED.value(), "Invalid token.", null);
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(commonApiResponse);
@@ -237,7 +483,7 @@ public class TaskController {
 
         try {
 
-            Task updatedTask = taskService.updateTaskStatus(id, updates, email);
+            Task updatedTask = taskService.updateTaskStatus(id, updates, principal.getUserId());
             CommonApiResponse<Task> commonApiResponse = new CommonApiResponse<>(
                     HttpStatus.OK.value(), "Task status updated successfully.", updatedTask);
             return ResponseEntity.ok(commonApiResponse);
@@ -245,6 +491,10 @@ public class TaskController {
             CommonApiResponse<Task> commonApiResponse = new CommonApiResponse<>(
                     HttpStatus.NOT_FOUND.value(), e.getMessage(), null);
             return ResponseEntity.ok(commonApiResponse);
+        } catch (TaskVersionConflictException e) {
+            CommonApiResponse<Task> commonApiResponse = new CommonApiResponse<>(
+                    HttpStatus.CONFLICT.value(), e.getMessage(), null);
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(commonApiResponse);
         } catch (Exception e) {
             CommonApiResponse<Task> commonApiResponse = new CommonApiResponse<>(
                     HttpStatus.INTERNAL_SERVER_ERROR.value(), "Failed to update task status.", null);
@@ -252,22 +502,57 @@ public class TaskController {
         }
     }
 
+    // PATCH: Set completion and/or importance on many tasks at once, chosen by ids or by filter.
+    // Runs as one UPDATE statement and returns the number of tasks changed.
+    @PatchMapping
+    public ResponseEntity<CommonApiResponse<Map<String, Integer>>> updateTasksStatus(@RequestBody TaskBulkUpdateDto update) {
+        JwtPrincipal principal = getAuthenticatedPrincipal();
+
+        // Handle unauthorized access
+        if (principal == null) {
+            CommonApiResponse<Map<String, Integer>> commonApiResponse = new CommonApiResponse<>(
+                    HttpStatus.UNAUTHORIZED.value(), "Invalid token.", null);
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(commonApiResponse);
+        }
+
+        try {
+            int updated = taskService.updateTasksStatus(update, principal.getUserId());
+            CommonApiResponse<Map<String, Integer>> commonApiResponse = new CommonApiResponse<>(
+                    HttpStatus.OK.value(), "Task status updated successfully.", Map.of("updated", updated));
+            return ResponseEntity.ok(commonApiResponse);
+        } catch (IllegalArgumentException e) {
+            CommonApiResponse<Map<String, Integer>> commonApiResponse = new CommonApiResponse<>(
+                    HttpStatus.BAD_REQUEST.value(), e.getMessage(), null);
+            return ResponseEntity.badRequest().body(commonApiResponse);
+        } catch (Exception e) {
+            CommonApiResponse<Map<String, Integer>> commonApiResponse = new CommonApiResponse<>(
+                    HttpStatus.INTERNAL_SERVER_ERROR.value(), "Failed to update task status.", null);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(commonApiResponse);
+        }
+    }
+
+    // Ranked substring search over the user's task titles and descriptions
     @GetMapping("/search")
     public ResponseEntity<CommonApiResponse<List<Task>>> searchTasksByTitle(
             @RequestParam("taskTitle") String taskTitle,
-            HttpServletRequest request) {
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size,
+            WebRequest webRequest) {
 
-        String email = validateTokenAndGetEmail(request);
+        JwtPrincipal principal = getAuthenticatedPrincipal();
 
         // Handle unauthorized access
-        if (email == null) {
+        if (principal == null) {
             CommonApiResponse<List<Task>> commonApiResponse = new CommonApiResponse<>(
                     HttpStatus.UNAUTHORIZED.value(), "Invalid token.", null);
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(commonApiResponse);
         }
 
         try {
-            List<Task> tasks = taskService.searchTasksByTitle(taskTitle, email);
+            if (notModified(webRequest, principal)) {
+                return null;
+            }
+            List<Task> tasks = taskService.searchTasksByTitle(taskTitle, principal.getUserId(), page, size);
 
             // Check if no tasks were found
             if (tasks.isEmpty()) {
@@ -0,0 +1,19 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+// Second-level, natural-id and query cache counters, as returned by GET /api/admin/cache-stats
+@AllArgsConstructor
+@Setter
+@Getter
+public class CacheStatsDto {
+    private boolean statisticsEnabled;
+    private List<CacheRegionStatsDto> regions;
+    private CacheRegionStatsDto secondLevelCache;
+    private CacheRegionStatsDto naturalIdCache;
+    private CacheRegionStatsDto queryCache;
+}
@@ -1,5 +1,6 @@
 package com.example.demo.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -13,5 +14,12 @@ public class CommonApiResponse<T> {
     private int statusCode;
     private String message;
     private T data;
+    // Opaque keyset cursor for the next page; omitted for unpaginated responses and on the last page
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
+    public CommonApiResponse(int statusCode, String message, T data) {
+        this(statusCode, message, data, null);
+    }
 
 }
@@ -0,0 +1,26 @@
+package com.example.demo.dto.tasks;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// Outcome of one element of a POST /api/tasks/batch request, reported at the element's position in the array
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResultDto {
+    private int index;
+    private int statusCode;
+    private Long taskId;
+    private List<String> errors;
+
+    public static BatchItemResultDto created(int index, Long taskId) {
+        return new BatchItemResultDto(index, 201, taskId, null);
+    }
+
+    public static BatchItemResultDto invalid(int index, List<String> errors) {
+        return new BatchItemResultDto(index, 400, null, errors);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.demo.dto.tasks;
+
+import com.example.demo.dto.UserDto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Compact list shape (?view=compact): the owner is written once instead of once per task
+@Getter
+@AllArgsConstructor
+public class CompactTaskListDto {
+    private UserDto owner;
+    private List<TaskItemDto> tasks;
+
+    // Expands to the default list shape; every element shares the same UserDto instance
+    public List<TaskResponseDto> expand() {
+        return tasks.stream().map(task -> task.withOwner(owner)).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.demo.dto.tasks;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+// Body of PATCH /api/tasks: the tasks are chosen either by ids or by filter (not both), and
+// isCompleted/isImportant are the values to set; a missing value leaves that flag unchanged
+@Setter
+@Getter
+public class TaskBulkUpdateDto {
+    private List<Long> ids;
+    private TaskFilterDto filter;
+    @JsonProperty("isCompleted")
+    private Boolean isCompleted;
+    @JsonProperty("isImportant")
+    private Boolean isImportant;
+}
@@ -0,0 +1,28 @@
+package com.example.demo.dto.tasks;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+
+// Aggregates over one category of the user's tasks (category is null for uncategorized tasks).
+// Built by the GROUP BY in TaskRepository.summarizeByCategory; progressSum is kept to roll categories up.
+@Getter
+public class TaskCategorySummaryDto {
+    private final String category;
+    private final long total;
+    private final long completed;
+    private final long important;
+    private final long overdue;
+    private final double averageProgress;
+    @JsonIgnore
+    private final long progressSum;
+
+    public TaskCategorySummaryDto(String category, Long total, Long completed, Long important, Long overdue, Long progressSum) {
+        this.category = category;
+        this.total = total;
+        this.completed = completed;
+        this.important = important;
+        this.overdue = overdue;
+        this.progressSum = progressSum;
+        this.averageProgress = total == 0 ? 0.0 : (double) progressSum / total;
+    }
+}
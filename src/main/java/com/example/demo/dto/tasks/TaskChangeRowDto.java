@@ -0,0 +1,25 @@
+package com.example.demo.dto.tasks;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+// A changed task together with the change sequence that positions it in the user's change feed
+@Getter
+@AllArgsConstructor
+public class TaskChangeRowDto {
+    private long changeSeq;
+    private Long taskId;
+    private String taskTitle;
+    private String taskDescription;
+    private String category;
+    private LocalDate dueDate;
+    private int progress;
+    private boolean isCompleted;
+    private boolean isImportant;
+
+    public TaskItemDto toItem() {
+        return new TaskItemDto(taskId, taskTitle, taskDescription, category, dueDate, progress, isCompleted, isImportant);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.demo.dto.tasks;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// One page of the user's change feed: tasks created or updated and ids of tasks deleted since the cursor.
+// cursor is always present and is what the client sends as "since" next time; hasMore asks it to do so now.
+@Getter
+@AllArgsConstructor
+public class TaskChangesDto {
+    private List<TaskItemDto> changed;
+    private List<Long> deleted;
+    private String cursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,14 @@
+package com.example.demo.dto.tasks;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Counts over the category/due-date/progress filters; "matching" additionally applies completed/important
+@Getter
+@AllArgsConstructor
+public class TaskCountsDto {
+    private long total;
+    private long completed;
+    private long important;
+    private long matching;
+}
@@ -0,0 +1,14 @@
+package com.example.demo.dto.tasks;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+// Just enough of a task to schedule its due-time reminder
+@Getter
+@AllArgsConstructor
+public class TaskDueDto {
+    private Long taskId;
+    private LocalDate dueDate;
+}
@@ -0,0 +1,16 @@
+package com.example.demo.dto.tasks;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Payload of a /api/tasks/stream event. task carries the new state for created/updated events; bulk updates
+// only say that something changed (taskId is null) and the client catches up through /api/tasks/changes.
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TaskEventDto {
+    private String type;
+    private Long taskId;
+    private TaskItemDto task;
+}
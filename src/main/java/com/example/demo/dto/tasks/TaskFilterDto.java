@@ -0,0 +1,20 @@
+package com.example.demo.dto.tasks;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+// Selects tasks for a bulk operation; every field is optional and they are combined with AND
+@Setter
+@Getter
+public class TaskFilterDto {
+    private Boolean completed;
+    private Boolean important;
+    private String category;
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate dueFrom;
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate dueTo;
+}
@@ -0,0 +1,38 @@
+package com.example.demo.dto.tasks;
+
+import com.example.demo.dto.UserDto;
+import com.example.demo.entity.Task;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+// A task's own fields without its owner; used by list responses where every task has the same owner.
+// Immutable: the same instances are shared by every reader of a TaskListCache snapshot.
+@Getter
+@AllArgsConstructor
+public class TaskItemDto {
+    private final Long taskId;
+    private final String taskTitle;
+    private final String taskDescription;
+    private final String category;
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private final LocalDate dueDate;
+    private final int progress;
+    @JsonProperty("isCompleted")
+    private final boolean isCompleted;
+    @JsonProperty("isImportant")
+    private final boolean isImportant;
+
+    public static TaskItemDto of(Task task) {
+        return new TaskItemDto(task.getId(), task.getTaskTitle(), task.getTaskDescription(), task.getCategory(),
+                task.getDueDate(), task.getProgress(), task.isCompleted(), task.isImportant());
+    }
+
+    public TaskResponseDto withOwner(UserDto owner) {
+        return new TaskResponseDto(taskId, taskTitle, taskDescription, category, dueDate, progress,
+                isCompleted, isImportant, owner);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.demo.dto.tasks;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class TaskPageDto {
+    private CompactTaskListDto tasks;
+    private String nextCursor; // null when this is the last page
+}
@@ -0,0 +1,25 @@
+package com.example.demo.dto.tasks;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+// Query-string filters for /api/tasks/query; every field is optional and they are combined with AND
+@Setter
+@Getter
+public class TaskQueryDto {
+    private Boolean completed;
+    private Boolean important;
+    private String category;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dueFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dueTo;
+    private Integer minProgress;
+    private Integer maxProgress;
+    private String sort = "id,asc"; // field,direction with field one of id, dueDate, progress, taskTitle, category
+    private int page = 0;
+    private Integer size;
+}
@@ -0,0 +1,18 @@
+package com.example.demo.dto.tasks;
+
+import com.example.demo.dto.UserDto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class TaskQueryResultDto {
+    private UserDto owner;
+    private List<TaskItemDto> tasks;
+    private TaskCountsDto counts;
+    private int page;
+    private int size;
+    private boolean hasNext;
+}
@@ -1,6 +1,7 @@
 package com.example.demo.dto.tasks;
 
 import com.example.demo.dto.UserDto;
+import com.example.demo.entity.ERole;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
@@ -25,4 +26,12 @@ public class TaskResponseDto {
     @JsonProperty("isImportant")
     private boolean isImportant;
     private UserDto user;
+
+    // Used by the constructor expressions in TaskRepository to build the DTO straight from a joined row
+    public TaskResponseDto(Long taskId, String taskTitle, String taskDescription, String category, LocalDate dueDate,
+                           int progress, boolean isCompleted, boolean isImportant,
+                           Long userId, String email, String username, ERole role) {
+        this(taskId, taskTitle, taskDescription, category, dueDate, progress, isCompleted, isImportant,
+                new UserDto(userId, email, username, role));
+    }
 }
@@ -0,0 +1,18 @@
+package com.example.demo.dto.tasks;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// Dashboard counts of GET /api/tasks/summary; overdue means not completed and due before today
+@Getter
+@AllArgsConstructor
+public class TaskSummaryDto {
+    private long total;
+    private long completed;
+    private long important;
+    private long overdue;
+    private double averageProgress;
+    private List<TaskCategorySummaryDto> categories;
+}
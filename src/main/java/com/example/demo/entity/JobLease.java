@@ -0,0 +1,33 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Exclusive right of one node to run a scheduled job until expiresAt. fencingToken identifies the holder's
+// tenure: it grows with every acquisition, and writes made under the lease are checked against it.
+@Entity
+@Table(name = "job_leases")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class JobLease {
+    @Id
+    @Column(name = "job_name", length = 100)
+    private String jobName;
+
+    @Column(nullable = false)
+    private String owner;
+
+    @Column(nullable = false)
+    private long fencingToken;
+
+    @Column(nullable = false)
+    private LocalDateTime acquiredAt; // UTC
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt; // UTC
+}
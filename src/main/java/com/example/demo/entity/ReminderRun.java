@@ -0,0 +1,66 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Progress of one partition of a day's due-soon reminder run: the keyset position after the last page whose
+// emails were queued in the email outbox (in the same transaction as this row). Per-task mode advances
+// (lastDueDate, lastTaskId), digest mode lastUserId.
+@Entity
+@Table(name = "reminder_runs")
+@IdClass(ReminderRun.Key.class)
+@Data
+@NoArgsConstructor
+public class ReminderRun {
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate runDate;
+        private int partition;
+    }
+
+    @Id
+    @Column(name = "run_date")
+    private LocalDate runDate;
+
+    @Id
+    @Column(name = "part")
+    private int partition; // MOD(user_id, app.reminders.partitions)
+
+    private LocalDate lastDueDate;
+
+    @Column(nullable = false)
+    private long lastTaskId;
+
+    @Column(nullable = false)
+    private long lastUserId;
+
+    @Column(nullable = false)
+    private int sent;
+
+    @Column(nullable = false)
+    private int failed;
+
+    @Column(nullable = false)
+    private LocalDateTime startedAt; // UTC
+
+    private LocalDateTime completedAt; // UTC
+
+    public ReminderRun(LocalDate runDate, int partition, LocalDateTime startedAt) {
+        this.runDate = runDate;
+        this.partition = partition;
+        this.startedAt = startedAt;
+    }
+
+    public boolean isCompleted() {
+        return completedAt != null;
+    }
+}
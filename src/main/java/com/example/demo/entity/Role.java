@@ -4,9 +4,16 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
 
+// Seeded once at startup and never modified, so it is served read-only from the second-level cache.
+// @Immutable makes Hibernate ignore any change to a loaded role, as a READ_ONLY cache requires.
 @Entity
 @Table(name = "role")
+@Immutable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "role")
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -2,6 +2,7 @@ package com.example.demo.entity;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.Data;
@@ -11,10 +12,21 @@ import java.time.LocalDate;
 
 @Entity
 @Data
-@Table(name = "tasks")
+@Table(name = "tasks", indexes = {
+        // Created by db/migration (V2, V6); declared here to keep the mapping in sync
+        @Index(name = "idx_tasks_user_completed", columnList = "user_id, is_completed"),
+        @Index(name = "idx_tasks_user_important", columnList = "user_id, is_important"),
+        @Index(name = "idx_tasks_user_due_date", columnList = "user_id, due_date, id"),
+        @Index(name = "idx_tasks_due_date", columnList = "due_date"),
+        @Index(name = "idx_tasks_user_change_seq", columnList = "user_id, change_seq, id")
+})
 public class Task {
+    // Pooled table generator (db/migration/V3__task_id_generator.sql): one row update reserves 50 ids, and
+    // unlike IDENTITY the ids are known before INSERT, so hibernate.jdbc.batch_size applies to tasks
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "task_id")
+    @TableGenerator(name = "task_id", table = "id_generator", pkColumnName = "gen_name",
+            valueColumnName = "gen_value", pkColumnValue = "task", allocationSize = 50)
     private Long id; // Renamed to id for consistency
 
     @Column(nullable = false)
@@ -34,6 +46,22 @@ public class Task {
     @JsonProperty("isImportant")
     private boolean isImportant;
 
+    // Incremented on every write; PUT and PATCH bodies may carry it to reject changes based on a stale copy
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    // The owner's users.task_version at the time of the last write; orders the change feed (/api/tasks/changes)
+    @Column(nullable = false)
+    @JsonIgnore
+    private long changeSeq;
+
+    // Due date the task was last reminded of (DueTimeReminderScheduler). Only ever set by
+    // TaskRepository.markReminded, never written back from the entity, so task updates cannot reset it.
+    @Column(insertable = false, updatable = false)
+    @JsonIgnore
+    private LocalDate remindedDueDate;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     @JsonBackReference
@@ -0,0 +1,39 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Record of a deleted task, kept so delta-sync clients learn about the deletion; pruned after a retention period
+@Entity
+@Table(name = "task_tombstones", indexes = {
+        @Index(name = "idx_task_tombstones_user_change_seq", columnList = "user_id, change_seq, task_id"),
+        @Index(name = "idx_task_tombstones_deleted_at", columnList = "deleted_at")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskTombstone {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "task_id", nullable = false)
+    private Long taskId;
+
+    @Column(nullable = false)
+    private long changeSeq;
+
+    @Column(nullable = false)
+    private LocalDateTime deletedAt; // UTC
+
+    public TaskTombstone(Long userId, Long taskId, long changeSeq, LocalDateTime deletedAt) {
+        this(null, userId, taskId, changeSeq, deletedAt);
+    }
+}
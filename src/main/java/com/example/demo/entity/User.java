@@ -5,14 +5,21 @@ import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.*;
 
+// Second-level cached by id and by email (natural id); see application.conf for region sizes and TTLs
 @Entity
 @Table(name="users")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
+@NaturalIdCache(region = "user-natural-id")
 @Data
 public class User implements UserDetails {
     @Id
@@ -27,6 +34,7 @@ public class User implements UserDetails {
     @JsonIgnore // Exclude password from serialization if necessary
     private String password;
 
+    @NaturalId
     @Column(nullable = false, unique = true)
     private String email;
 
@@ -35,6 +43,13 @@ public class User implements UserDetails {
     @JoinColumn(name = "role_id", nullable = false) // Reference to Role entity
     private Role role;
 
+    // Bumped by TaskService through UserRepository.incrementTaskVersion only, never written from the entity,
+    // so a stale User instance (e.g. one held by AuthenticatedUserCache) cannot move it backwards.
+    // The value on a (cached) entity may lag; read it with UserRepository.findTaskVersionById
+    @Column(name = "task_version", nullable = false, insertable = false, updatable = false)
+    @JsonIgnore
+    private long taskVersion;
+
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @ToString.Exclude // Avoid circular references
     @JsonManagedReference // Allow serialization of tasks
@@ -0,0 +1,52 @@
+package com.example.demo.event;
+
+import com.example.demo.dto.tasks.TaskItemDto;
+import com.example.demo.entity.Task;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// Published by TaskService after every task mutation. Listeners use @TransactionalEventListener so they only
+// observe committed changes (or run immediately when the change happened outside a transaction).
+@Getter
+@AllArgsConstructor
+public class TaskChangedEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final Long userId;
+    private final Long taskId; // null for bulk changes that may touch many tasks
+    private final Type type;
+    private final Task task; // state after the change; null for deletions and bulk changes
+    private final List<TaskItemDto> createdTasks; // snapshots of the tasks of a batch create; null otherwise
+
+    public static TaskChangedEvent created(Task task) {
+        return new TaskChangedEvent(task.getUser().getId(), task.getId(), Type.CREATED, task, null);
+    }
+
+    // One event for a whole POST /api/tasks/batch. It carries detached snapshots, not the entities, which the
+    // batch clears from the persistence context as it goes.
+    public static TaskChangedEvent batchCreated(Long userId, List<TaskItemDto> tasks) {
+        return new TaskChangedEvent(userId, null, Type.CREATED, null, tasks);
+    }
+
+    public static TaskChangedEvent updated(Task task) {
+        return new TaskChangedEvent(task.getUser().getId(), task.getId(), Type.UPDATED, task, null);
+    }
+
+    public static TaskChangedEvent deleted(Long userId, Long taskId) {
+        return new TaskChangedEvent(userId, taskId, Type.DELETED, null, null);
+    }
+
+    // Set-based status update of any number of the user's tasks; titles and descriptions are unchanged
+    public static TaskChangedEvent bulkUpdated(Long userId) {
+        return new TaskChangedEvent(userId, null, Type.UPDATED, null, null);
+    }
+
+    public boolean isBulk() {
+        return taskId == null;
+    }
+}
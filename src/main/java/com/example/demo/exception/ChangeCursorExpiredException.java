@@ -0,0 +1,8 @@
+package com.example.demo.exception;
+
+// The delta-sync cursor predates the tombstone retention window; the client has to resync from scratch
+public class ChangeCursorExpiredException extends RuntimeException {
+    public ChangeCursorExpiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.demo.exception;
+
+// A job lease expired and was taken over by another node; whatever the old holder was about to write is void
+public class LeaseLostException extends RuntimeException {
+    public LeaseLostException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.demo.exception;
+
+import com.example.demo.dto.tasks.BatchItemResultDto;
+
+import java.util.List;
+
+// Thrown before anything is written when at least one element of a task batch is invalid
+public class TaskBatchValidationException extends RuntimeException {
+    private final List<BatchItemResultDto> results;
+
+    public TaskBatchValidationException(String message, List<BatchItemResultDto> results) {
+        super(message);
+        this.results = results;
+    }
+
+    public List<BatchItemResultDto> getResults() {
+        return results;
+    }
+}
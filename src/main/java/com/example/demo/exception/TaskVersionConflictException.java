@@ -0,0 +1,8 @@
+package com.example.demo.exception;
+
+// The task was changed by someone else since the version the client based its write on
+public class TaskVersionConflictException extends RuntimeException {
+    public TaskVersionConflictException(String message) {
+        super(message);
+    }
+}
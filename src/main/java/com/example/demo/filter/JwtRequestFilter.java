@@ -3,6 +3,7 @@ package com.example.demo.filter;
 
 import com.example.demo.entity.User;
 import com.example.demo.service.UserService;
+import com.example.demo.util.JwtPrincipal;
 import com.example.demo.util.JwtUtil;
 import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
@@ -79,43 +80,49 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 //    }
 
     //     called for each request. It handles the filtering logic.
+    // The token is parsed and its signature verified exactly once here; the resulting claims are stored
+    // as the authentication principal so downstream code reads them from the SecurityContext.
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
             throws ServletException, IOException {
 
         final String authorizationHeader = request.getHeader("Authorization");
-        System.out.println("Authorization Header: " + authorizationHeader); // Log the Authorization header
 
-        String username = null;
+        JwtPrincipal principal = null;
         String jwt = null;
 
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
             jwt = authorizationHeader.substring(7);
-            System.out.println(jwt);
             try {
-                username = jwtUtil.extractUsername(jwt);
-                logger.info("Extracted Username: {}", username); // Log the extracted username
+                principal = jwtUtil.parseToken(jwt);
+                logger.debug("Extracted Username: {}", principal.getEmail()); // Log the extracted username
             } catch (JwtException e) {
                 logger.error("JWT Extraction Error: {}", e.getMessage());  // Log if JWT extraction fails
             }
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        if (principal != null && principal.getEmail() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-            User userDetails = this.userService.loadUserByUsername(username);
-            System.out.println("UserDetails Loaded: " + userDetails);
+            User userDetails = this.userService.loadAuthenticatedUser(principal.getEmail());
 
-            if (jwtUtil.validateToken(jwt, userDetails.getUsername())) {
+            // Name and role come from the resolved user rather than the token, so a rename or role change shows
+            // once the principal cache reloads the user instead of after the token expires. Tokens issued before
+            // the uid claim existed also take their id from it.
+            principal = new JwtPrincipal(principal.getUserId() != null ? principal.getUserId() : userDetails.getId(),
+                    principal.getEmail(), userDetails.getName(), userDetails.getRole().getName(),
+                    principal.getExpiration());
+
+            if (principal.getEmail().equals(userDetails.getUsername())
+                    && principal.getUserId().equals(userDetails.getId())
+                    && !principal.isExpired()) {
                 UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
+                        principal, null, userDetails.getAuthorities());
                 authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authenticationToken);
-                logger.info("JWT Token Validated: {}", jwt);  // Log token validation
+                logger.debug("JWT Token Validated for: {}", principal.getEmail());  // Log token validation
             } else {
                 logger.warn("Invalid JWT Token: {}", jwt);  // Log invalid token
             }
-        } else {
-            System.out.println("No valid authentication found or username is null");
         }
         chain.doFilter(request, response);
     }
@@ -0,0 +1,27 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.JobLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface JobLeaseRepository extends JpaRepository<JobLease, String> {
+
+    // Takes over an expired lease with a new fencing token; 0 rows means it is held (or does not exist yet)
+    @Modifying
+    @Query("UPDATE JobLease l SET l.owner = :owner, l.fencingToken = l.fencingToken + 1, l.acquiredAt = :now, " +
+            "l.expiresAt = :expiresAt WHERE l.jobName = :jobName AND l.expiresAt <= :now")
+    int takeOverExpired(@Param("jobName") String jobName, @Param("owner") String owner,
+                        @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+
+    // Moves the expiry of the lease, but only for the tenure identified by the token
+    @Modifying
+    @Query("UPDATE JobLease l SET l.expiresAt = :expiresAt WHERE l.jobName = :jobName AND l.fencingToken = :token")
+    int updateExpiry(@Param("jobName") String jobName, @Param("token") long token,
+                     @Param("expiresAt") LocalDateTime expiresAt);
+}
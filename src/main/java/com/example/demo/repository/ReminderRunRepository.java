@@ -0,0 +1,14 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.ReminderRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ReminderRunRepository extends JpaRepository<ReminderRun, ReminderRun.Key> {
+
+    List<ReminderRun> findByRunDate(LocalDate runDate);
+}
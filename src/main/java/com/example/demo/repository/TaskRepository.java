@@ -1,25 +1,183 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.tasks.TaskCategorySummaryDto;
+import com.example.demo.dto.tasks.TaskChangeRowDto;
+import com.example.demo.dto.tasks.TaskDueDto;
+import com.example.demo.dto.tasks.TaskItemDto;
+import com.example.demo.dto.tasks.TaskResponseDto;
 import com.example.demo.entity.Task;
-import com.example.demo.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDateTime;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface TaskRepository extends JpaRepository<Task,Long> {
-    List<Task> findByUser(User user);
+public interface TaskRepository extends JpaRepository<Task,Long>, JpaSpecificationExecutor<Task>, TaskRepositoryCustom {
 
-    Optional<Task> findByIdAndUser(Long id, User user);
+    // Single-task and reminder reads build TaskResponseDto (and its UserDto) from one joined row, so no
+    // Task/User entity is managed and no lazy association is touched while converting
+    String SELECT_TASK_DTO = "SELECT new com.example.demo.dto.tasks.TaskResponseDto(" +
+            "t.id, t.taskTitle, t.taskDescription, t.category, t.dueDate, t.progress, t.isCompleted, t.isImportant, " +
+            "u.id, u.email, u.name, r.name) " +
+            "FROM Task t JOIN t.user u JOIN u.role r ";
 
-    List<Task> findByUserAndIsCompleted(User user, boolean isCompleted);
+    // List reads select only the task columns; the caller already knows the owner
+    String SELECT_TASK_ITEM = "SELECT new com.example.demo.dto.tasks.TaskItemDto(" +
+            "t.id, t.taskTitle, t.taskDescription, t.category, t.dueDate, t.progress, t.isCompleted, t.isImportant) " +
+            "FROM Task t ";
 
-    List<Task> findByUserAndIsImportant(User user, boolean isImportant);
+    @Query(SELECT_TASK_ITEM + "WHERE t.user.id = :userId")
+    List<TaskItemDto> findItemsByUserId(@Param("userId") Long userId);
 
-    List<Task> findTasksByDueDateBetween(LocalDateTime start, LocalDateTime end);
+    @Query(SELECT_TASK_DTO + "WHERE t.id = :id AND u.id = :userId")
+    Optional<TaskResponseDto> findDtoByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
 
-    List<Task> findByTaskTitleContainingAndUserEmail(String taskTitle, String email);
+    @Query(SELECT_TASK_DTO + "WHERE t.id = :id")
+    Optional<TaskResponseDto> findDtoById(@Param("id") Long id);
+
+    Optional<Task> findByIdAndUserId(Long id, Long userId);
+
+    boolean existsByIdAndUserId(Long id, Long userId);
+
+    // Keyset pages: each query seeks past the previous page's last key, so deep pages cost the same as the first
+    @Query(SELECT_TASK_ITEM + "WHERE t.user.id = :userId AND t.id > :afterId ORDER BY t.id ASC")
+    List<TaskItemDto> findPageOrderById(@Param("userId") Long userId, @Param("afterId") long afterId, Pageable limit);
+
+    @Query(SELECT_TASK_ITEM + "WHERE t.user.id = :userId AND t.dueDate IS NOT NULL ORDER BY t.dueDate ASC, t.id ASC")
+    List<TaskItemDto> findFirstDatedPage(@Param("userId") Long userId, Pageable limit);
+
+    // The redundant "dueDate >= :dueDate" gives the planner a range on (user_id, due_date, id) to seek into
+    @Query(SELECT_TASK_ITEM + "WHERE t.user.id = :userId AND t.dueDate >= :dueDate " +
+            "AND (t.dueDate > :dueDate OR (t.dueDate = :dueDate AND t.id > :afterId)) ORDER BY t.dueDate ASC, t.id ASC")
+    List<TaskItemDto> findDatedPageAfter(@Param("userId") Long userId, @Param("dueDate") LocalDate dueDate,
+                                         @Param("afterId") long afterId, Pageable limit);
+
+    @Query(SELECT_TASK_ITEM + "WHERE t.user.id = :userId AND t.dueDate IS NULL AND t.id > :afterId ORDER BY t.id ASC")
+    List<TaskItemDto> findUndatedPageAfter(@Param("userId") Long userId, @Param("afterId") long afterId, Pageable limit);
+
+    // Due-soon reminders: open tasks due up to :end, one keyset page after (dueDate, afterId) at a time, each
+    // with its owner from the same joined row. The first page starts at (first due date, 0). Runs are split
+    // into partitions of owners by MOD(user id, :partitions).
+    @Query(SELECT_TASK_DTO + "WHERE t.dueDate BETWEEN :dueDate AND :end AND t.isCompleted = false " +
+            "AND (t.dueDate > :dueDate OR t.id > :afterId) AND MOD(u.id, :partitions) = :partition " +
+            "ORDER BY t.dueDate ASC, t.id ASC")
+    List<TaskResponseDto> findDueSoonPageAfter(@Param("dueDate") LocalDate dueDate, @Param("end") LocalDate end,
+                                               @Param("afterId") long afterId, @Param("partitions") int partitions,
+                                               @Param("partition") int partition, Pageable limit);
+
+    // Digest reminders: the next owners of the partition (in id order) with open tasks due between :start and :end ...
+    @Query("SELECT DISTINCT t.user.id FROM Task t WHERE t.dueDate BETWEEN :start AND :end AND t.isCompleted = false " +
+            "AND t.user.id > :afterUserId AND MOD(t.user.id, :partitions) = :partition ORDER BY t.user.id ASC")
+    List<Long> findDueSoonOwnersAfter(@Param("start") LocalDate start, @Param("end") LocalDate end,
+                                      @Param("afterUserId") long afterUserId, @Param("partitions") int partitions,
+                                      @Param("partition") int partition, Pageable limit);
+
+    // ... and all of those owners' due tasks, grouped by owner (idx_tasks_user_due_date)
+    @Query(SELECT_TASK_DTO + "WHERE u.id IN :userIds AND t.dueDate BETWEEN :start AND :end AND t.isCompleted = false " +
+            "ORDER BY u.id ASC, t.dueDate ASC, t.id ASC")
+    List<TaskResponseDto> findDueSoonByOwners(@Param("userIds") Collection<Long> userIds,
+                                              @Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    // Due-time reminders: open tasks due up to :end that have not been reminded of their current due date, one
+    // keyset page after (dueDate, afterId) at a time (idx_tasks_due_date)
+    @Query("SELECT new com.example.demo.dto.tasks.TaskDueDto(t.id, t.dueDate) FROM Task t " +
+            "WHERE t.dueDate BETWEEN :dueDate AND :end AND t.isCompleted = false " +
+            "AND (t.remindedDueDate IS NULL OR t.remindedDueDate <> t.dueDate) " +
+            "AND (t.dueDate > :dueDate OR t.id > :afterId) ORDER BY t.dueDate ASC, t.id ASC")
+    List<TaskDueDto> findUnremindedDuePageAfter(@Param("dueDate") LocalDate dueDate, @Param("end") LocalDate end,
+                                                @Param("afterId") long afterId, Pageable limit);
+
+    // Claims the due-time reminder of a task for :dueDate. 0 rows when the task is gone, completed, due on
+    // another date by now, or was already reminded (possibly by another node).
+    @Modifying
+    @Query("UPDATE Task t SET t.remindedDueDate = :dueDate WHERE t.id = :id AND t.dueDate = :dueDate " +
+            "AND t.isCompleted = false AND (t.remindedDueDate IS NULL OR t.remindedDueDate <> :dueDate)")
+    int markReminded(@Param("id") Long id, @Param("dueDate") LocalDate dueDate);
+
+    // Status updates run as a single UPDATE, for one task or for every match. A null value keeps the column as
+    // it is; a null filter field does not restrict the match. Bulk updates bypass Hibernate's version check,
+    // so the version is incremented explicitly, and the rows are stamped with the caller's change sequence.
+    String SET_STATUS = "UPDATE Task t SET t.isCompleted = COALESCE(:isCompleted, t.isCompleted), " +
+            "t.isImportant = COALESCE(:isImportant, t.isImportant), t.version = t.version + 1, " +
+            "t.changeSeq = :changeSeq ";
+
+    // Conditional on :version when given; 0 rows means the task is missing or was changed concurrently
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(SET_STATUS + "WHERE t.id = :id AND t.user.id = :userId AND (:version IS NULL OR t.version = :version)")
+    int updateStatus(@Param("id") Long id, @Param("userId") Long userId, @Param("isCompleted") Boolean isCompleted,
+                     @Param("isImportant") Boolean isImportant, @Param("version") Long version,
+                     @Param("changeSeq") long changeSeq);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(SET_STATUS + "WHERE t.user.id = :userId AND t.id IN :ids")
+    int updateStatusByIds(@Param("userId") Long userId, @Param("ids") Collection<Long> ids,
+                          @Param("isCompleted") Boolean isCompleted, @Param("isImportant") Boolean isImportant,
+                          @Param("changeSeq") long changeSeq);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(SET_STATUS + "WHERE t.user.id = :userId " +
+            "AND (:completed IS NULL OR t.isCompleted = :completed) " +
+            "AND (:important IS NULL OR t.isImportant = :important) " +
+            "AND (:category IS NULL OR t.category = :category) " +
+            "AND (:dueFrom IS NULL OR t.dueDate >= :dueFrom) " +
+            "AND (:dueTo IS NULL OR t.dueDate <= :dueTo)")
+    int updateStatusByFilter(@Param("userId") Long userId, @Param("completed") Boolean completed,
+                             @Param("important") Boolean important, @Param("category") String category,
+                             @Param("dueFrom") LocalDate dueFrom, @Param("dueTo") LocalDate dueTo,
+                             @Param("isCompleted") Boolean isCompleted, @Param("isImportant") Boolean isImportant,
+                             @Param("changeSeq") long changeSeq);
+
+    // Change feed: tasks written after the (changeSeq, id) position, in change order
+    @Query("SELECT new com.example.demo.dto.tasks.TaskChangeRowDto(t.changeSeq, " +
+            "t.id, t.taskTitle, t.taskDescription, t.category, t.dueDate, t.progress, t.isCompleted, t.isImportant) " +
+            "FROM Task t WHERE t.user.id = :userId AND t.changeSeq >= :changeSeq " +
+            "AND (t.changeSeq > :changeSeq OR t.id > :afterId) ORDER BY t.changeSeq ASC, t.id ASC")
+    List<TaskChangeRowDto> findChangesAfter(@Param("userId") Long userId, @Param("changeSeq") long changeSeq,
+                                            @Param("afterId") long afterId, Pageable limit);
+
+    // Per-category counts for the summary endpoint in one pass over the user's rows (a user_id-leading index);
+    // the service adds the categories up for the overall figures
+    @Query("SELECT new com.example.demo.dto.tasks.TaskCategorySummaryDto(t.category, COUNT(t), " +
+            "SUM(CASE WHEN t.isCompleted = true THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN t.isImportant = true THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN t.isCompleted = false AND t.dueDate < :today THEN 1 ELSE 0 END), " +
+            "SUM(t.progress)) " +
+            "FROM Task t WHERE t.user.id = :userId GROUP BY t.category ORDER BY t.category ASC")
+    List<TaskCategorySummaryDto> summarizeByCategory(@Param("userId") Long userId, @Param("today") LocalDate today);
+
+    // Export cursor: rows are fetched from the driver EXPORT_FETCH_SIZE at a time and loaded read-only, so the
+    // caller can detach each task after writing it and keep memory flat. Must be consumed inside a transaction.
+    String EXPORT_FETCH_SIZE = "500";
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT t FROM Task t WHERE t.user.id = :userId ORDER BY t.id ASC")
+    Stream<Task> streamByUserId(@Param("userId") Long userId);
+
+    // Search fallback while TaskSearchIndex is being built: the fields the index covers, matched case-insensitively;
+    // :pattern is lower case with '!' escaping
+    @Query("SELECT t FROM Task t WHERE t.user.id = :userId AND (LOWER(t.taskTitle) LIKE :pattern ESCAPE '!' " +
+            "OR LOWER(t.taskDescription) LIKE :pattern ESCAPE '!') ORDER BY t.id DESC")
+    List<Task> findByUserIdAndTextLike(@Param("userId") Long userId, @Param("pattern") String pattern, Pageable page);
+
+    List<Task> findByIdInAndUserId(List<Long> ids, Long userId);
+
+    // Rows are (id, userId, taskTitle, taskDescription); used to rebuild TaskSearchIndex in id order
+    @Query("SELECT t.id, t.user.id, t.taskTitle, t.taskDescription FROM Task t WHERE t.id > :afterId ORDER BY t.id ASC")
+    List<Object[]> findSearchDocumentsAfter(@Param("afterId") long afterId, Pageable limit);
 }
@@ -0,0 +1,19 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.tasks.TaskCountsDto;
+import com.example.demo.dto.tasks.TaskItemDto;
+import com.example.demo.entity.Task;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+// Criteria queries that Spring Data's derived/annotated methods cannot express
+public interface TaskRepositoryCustom {
+
+    // Projects straight into TaskItemDto, so no Task entities are loaded
+    List<TaskItemDto> findItems(Specification<Task> spec, Sort sort, int offset, int limit);
+
+    // Total/completed/important over `base` and the count also matching `status`, all in one aggregate query
+    TaskCountsDto countFacets(Specification<Task> base, Specification<Task> status);
+}
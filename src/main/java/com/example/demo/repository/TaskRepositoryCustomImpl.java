@@ -0,0 +1,81 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.tasks.TaskCountsDto;
+import com.example.demo.dto.tasks.TaskItemDto;
+import com.example.demo.entity.Task;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<TaskItemDto> findItems(Specification<Task> spec, Sort sort, int offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskItemDto> query = cb.createQuery(TaskItemDto.class);
+        Root<Task> root = query.from(Task.class);
+        query.select(cb.construct(TaskItemDto.class,
+                root.get("id"), root.get("taskTitle"), root.get("taskDescription"), root.get("category"),
+                root.get("dueDate"), root.get("progress"), root.get("isCompleted"), root.get("isImportant")));
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            orders.add(order.isAscending() ? cb.asc(root.get(order.getProperty())) : cb.desc(root.get(order.getProperty())));
+        }
+        query.orderBy(orders);
+
+        return entityManager.createQuery(query)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public TaskCountsDto countFacets(Specification<Task> base, Specification<Task> status) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Task> root = query.from(Task.class);
+
+        Predicate statusPredicate = status == null ? null : status.toPredicate(root, query, cb);
+        query.multiselect(
+                cb.count(root),
+                countWhere(cb, cb.isTrue(root.get("isCompleted"))),
+                countWhere(cb, cb.isTrue(root.get("isImportant"))),
+                statusPredicate == null ? cb.count(root) : countWhere(cb, statusPredicate));
+
+        Predicate basePredicate = base.toPredicate(root, query, cb);
+        if (basePredicate != null) {
+            query.where(basePredicate);
+        }
+
+        Object[] row = entityManager.createQuery(query).getSingleResult();
+        return new TaskCountsDto(toLong(row[0]), toLong(row[1]), toLong(row[2]), toLong(row[3]));
+    }
+
+    private static Expression<Integer> countWhere(CriteriaBuilder cb, Predicate predicate) {
+        return cb.sum(cb.<Integer>selectCase().when(predicate, 1).otherwise(0));
+    }
+
+    // SUM over an empty set is NULL
+    private static long toLong(Object value) {
+        return value == null ? 0L : ((Number) value).longValue();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.Task;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+
+// Building blocks for /api/tasks/query; a null argument yields a null Specification, which Spring Data ignores
+public final class TaskSpecifications {
+
+    private TaskSpecifications() {
+    }
+
+    public static Specification<Task> ownedBy(Long userId) {
+        return (root, query, cb) -> cb.equal(root.get("user").get("id"), userId);
+    }
+
+    public static Specification<Task> isCompleted(Boolean completed) {
+        return completed == null ? null : (root, query, cb) -> cb.equal(root.get("isCompleted"), completed);
+    }
+
+    public static Specification<Task> isImportant(Boolean important) {
+        return important == null ? null : (root, query, cb) -> cb.equal(root.get("isImportant"), important);
+    }
+
+    public static Specification<Task> inCategory(String category) {
+        return category == null || category.isBlank() ? null : (root, query, cb) -> cb.equal(root.get("category"), category);
+    }
+
+    public static Specification<Task> dueFrom(LocalDate from) {
+        return from == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("dueDate"), from);
+    }
+
+    public static Specification<Task> dueTo(LocalDate to) {
+        return to == null ? null : (root, query, cb) -> cb.lessThanOrEqualTo(root.get("dueDate"), to);
+    }
+
+    public static Specification<Task> progressAtLeast(Integer min) {
+        return min == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("progress"), min);
+    }
+
+    public static Specification<Task> progressAtMost(Integer max) {
+        return max == null ? null : (root, query, cb) -> cb.lessThanOrEqualTo(root.get("progress"), max);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.TaskTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TaskTombstoneRepository extends JpaRepository<TaskTombstone, Long> {
+
+    // Deletions after the (changeSeq, taskId) position, in change order
+    @Query("SELECT tb FROM TaskTombstone tb WHERE tb.userId = :userId AND tb.changeSeq >= :changeSeq " +
+            "AND (tb.changeSeq > :changeSeq OR tb.taskId > :taskId) ORDER BY tb.changeSeq ASC, tb.taskId ASC")
+    List<TaskTombstone> findChangesAfter(@Param("userId") Long userId, @Param("changeSeq") long changeSeq,
+                                         @Param("taskId") long taskId, Pageable limit);
+
+    @Modifying
+    @Query("DELETE FROM TaskTombstone tb WHERE tb.deletedAt < :cutoff")
+    int deleteByDeletedAtBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,17 +1,37 @@
 package com.example.demo.repository;
 
 import com.example.demo.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
-public interface UserRepository extends JpaRepository<User,Long> {
+public interface UserRepository extends JpaRepository<User,Long>, UserRepositoryCustom {
     Optional<User> findByEmailIgnoreCase(String email);
     boolean existsByEmail(String email);
 
     @Query("SELECT u FROM User u WHERE u.email = :email")
     Optional<User> findByEmail(@Param("email") String email);
 
+    // Change counter of the user's task list; one primary-key read, the tasks table is not touched
+    @Query("SELECT u.taskVersion FROM User u WHERE u.id = :userId")
+    Optional<Long> findTaskVersionById(@Param("userId") Long userId);
+
+    // Rows are (userId, taskVersion); read by TaskSearchIndex before it rebuilds
+    @Query("SELECT u.id, u.taskVersion FROM User u")
+    List<Object[]> findAllTaskVersions();
+
+    // Called inside the transaction that changes the user's tasks, so the new value becomes visible with them.
+    // Native with a query space of its own: a JPQL bulk update (or a native one without spaces) would evict the
+    // whole User second-level cache region on every task write. No cached state depends on task_version.
+    @Modifying
+    @Query(value = "UPDATE users SET task_version = task_version + 1 WHERE user_id = :userId", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users_task_version"))
+    int incrementTaskVersion(@Param("userId") Long userId);
 }
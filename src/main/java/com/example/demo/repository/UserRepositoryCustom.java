@@ -0,0 +1,10 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.User;
+
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+    // Exact-match lookup by the email natural id, served from the natural-id and User second-level caches
+    Optional<User> findByNaturalEmail(String email);
+}
@@ -0,0 +1,65 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.User;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+// Bounded, time-limited cache of the users resolved by JwtRequestFilter, keyed by normalized email.
+// Registering a user evicts the entry for their email. The application has no path that changes an existing
+// user's name, role or password, so otherwise entries live for ttl-seconds; a path added for that must call
+// invalidate(email) after its transaction commits.
+// Users are loaded outside the cache's map lock: a synchronous Caffeine loader runs inside
+// ConcurrentHashMap.compute, whose synchronized bin lock would pin a virtual thread for the whole query.
+// Concurrent lookups of the same email still share one load, by waiting on its future.
+@Component
+public class AuthenticatedUserCache {
+
+    private final AsyncCache<String, User> users;
+
+    public AuthenticatedUserCache(@Value("${app.security.principal-cache.max-size:10000}") long maxSize,
+                                  @Value("${app.security.principal-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .buildAsync();
+    }
+
+    public User get(String email, Function<String, User> loader) {
+        CompletableFuture<User> loading = new CompletableFuture<>();
+        CompletableFuture<User> cached = users.asMap().putIfAbsent(normalize(email), loading);
+        if (cached != null) {
+            try {
+                return cached.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        // A failed or null load is dropped from the cache when its future completes
+        try {
+            User user = loader.apply(email);
+            loading.complete(user);
+            return user;
+        } catch (RuntimeException e) {
+            loading.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public void invalidate(String email) {
+        if (email != null) {
+            users.synchronous().invalidate(normalize(email));
+        }
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.CacheRegionStatsDto;
+import com.example.demo.dto.CacheStatsDto;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Reads the Hibernate statistics (hibernate.generate_statistics) of the second-level cache regions
+// configured in application.conf, so the hit ratio of the Role/User caches can be observed at runtime
+@Service
+public class CacheStatisticsService {
+
+    private final Statistics statistics;
+
+    public CacheStatisticsService(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public CacheStatsDto getCacheStats() {
+        List<CacheRegionStatsDto> regions = new ArrayList<>();
+        String[] names = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(names);
+        for (String name : names) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(name);
+            if (region != null) {
+                regions.add(stats(name, region.getHitCount(), region.getMissCount(), region.getPutCount()));
+            }
+        }
+        return new CacheStatsDto(
+                statistics.isStatisticsEnabled(),
+                regions,
+                stats("second-level", statistics.getSecondLevelCacheHitCount(),
+                        statistics.getSecondLevelCacheMissCount(), statistics.getSecondLevelCachePutCount()),
+                stats("natural-id", statistics.getNaturalIdCacheHitCount(),
+                        statistics.getNaturalIdCacheMissCount(), statistics.getNaturalIdCachePutCount()),
+                stats("query", statistics.getQueryCacheHitCount(),
+                        statistics.getQueryCacheMissCount(), statistics.getQueryCachePutCount()));
+    }
+
+    private static CacheRegionStatsDto stats(String name, long hits, long misses, long puts) {
+        long lookups = hits + misses;
+        return new CacheRegionStatsDto(name, hits, misses, puts, lookups == 0 ? 0.0 : (double) hits / lookups);
+    }
+}
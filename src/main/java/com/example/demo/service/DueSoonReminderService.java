@@ -0,0 +1,298 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.UserDto;
+import com.example.demo.dto.tasks.TaskResponseDto;
+import com.example.demo.entity.JobLease;
+import com.example.demo.entity.ReminderRun;
+import com.example.demo.exception.LeaseLostException;
+import com.example.demo.repository.ReminderRunRepository;
+import com.example.demo.repository.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Daily "task due soon" emails for open tasks due today or tomorrow. Per-task mode (the default) sends one plain
+// email per task; in digest mode each owner gets one HTML email listing all of their due tasks, rendered from
+// templates/email/due-digest.html. Work is read a keyset page at a time (owners, or tasks with their owner
+// in the same row). Each page's emails are queued in the email outbox in the same transaction that moves the
+// checkpoint in reminder_runs past the page, so a run cut short by a crash or restart resumes without skipping
+// or repeating an email, and a finished run is not repeated the same day. Delivery, with its retries, is left
+// to EmailOutboxDispatcher.
+// The cron fires on every node. A run is split into app.reminders.partitions partitions of owners
+// (MOD(user_id, partitions)), each run under its own job lease: every node works through the partitions no
+// other node holds, so one node does the whole run alone and several share it. Every page commit is fenced
+// by the lease, and a partition left behind by a node that died is taken over once its lease expires.
+@Service
+public class DueSoonReminderService {
+
+    public enum Mode {
+        DIGEST, PER_TASK;
+
+        public static Mode from(String value) {
+            return Mode.valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    private static final String DIGEST_TEMPLATE = "email/due-digest";
+    static final String TASK_REMINDER_SUBJECT = "Reminder: Task due soon!";
+    private static final String LEASE_PREFIX = "due-soon-reminders:";
+
+    private static final Logger logger = LoggerFactory.getLogger(DueSoonReminderService.class);
+
+    private final TaskRepository taskRepository;
+    private final ReminderRunRepository reminderRunRepository;
+    private final EmailService emailService;
+    private final JobLeaseService leaseService;
+    private final TaskScheduler taskScheduler;
+    private final ITemplateEngine templateEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final Mode mode;
+    private final int pageSize;
+    private final int partitions;
+    private final Duration leaseTtl;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public DueSoonReminderService(TaskRepository taskRepository, ReminderRunRepository reminderRunRepository,
+                                  EmailService emailService, JobLeaseService leaseService, TaskScheduler taskScheduler,
+                                  ITemplateEngine templateEngine, TransactionTemplate transactionTemplate,
+                                  @Value("${app.reminders.mode:per-task}") String mode,
+                                  @Value("${app.reminders.page-size:500}") int pageSize,
+                                  @Value("${app.reminders.partitions:4}") int partitions,
+                                  @Value("${app.reminders.lease-seconds:120}") long leaseSeconds) {
+        this.taskRepository = taskRepository;
+        this.reminderRunRepository = reminderRunRepository;
+        this.emailService = emailService;
+        this.leaseService = leaseService;
+        this.taskScheduler = taskScheduler;
+        this.templateEngine = templateEngine;
+        this.transactionTemplate = transactionTemplate;
+        this.mode = Mode.from(mode);
+        this.pageSize = pageSize;
+        this.partitions = partitions;
+        this.leaseTtl = Duration.ofSeconds(leaseSeconds);
+    }
+
+    @Scheduled(cron = "${app.reminders.cron:0 0 11 * * *}")
+    public void sendDueSoonNotifications() {
+        run(LocalDate.now());
+    }
+
+    // On the scheduler, so startup is not held up. `running` keeps the resumed run from overlapping the
+    // cron-triggered one, also when scheduled tasks run on virtual threads instead of one scheduler thread.
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeOnStartup() {
+        taskScheduler.schedule(this::resumeUnfinishedRun, Instant.now());
+    }
+
+    // Picks up today's run if it was started but is not finished: the previous process stopped in the middle of
+    // it, or the node working on a partition died and its lease has expired
+    @Scheduled(initialDelayString = "${app.reminders.takeover-check-ms:60000}",
+            fixedDelayString = "${app.reminders.takeover-check-ms:60000}")
+    public void resumeUnfinishedRun() {
+        if (running.get()) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        List<ReminderRun> started = reminderRunRepository.findByRunDate(today);
+        if (!started.isEmpty() && (started.size() < partitions || !started.stream().allMatch(ReminderRun::isCompleted))) {
+            logger.info("Resuming unfinished due-soon reminder run {}", today);
+            run(today);
+        }
+    }
+
+    public List<ReminderRun> run(LocalDate runDate) {
+        return run(runDate, mode);
+    }
+
+    // Queues the reminders of runDate (tasks due on runDate or the day after) for every partition that is
+    // neither finished nor leased by another node, each from its checkpoint onwards. Returns the partitions
+    // this call finished.
+    public List<ReminderRun> run(LocalDate runDate, Mode mode) {
+        if (!running.compareAndSet(false, true)) {
+            logger.warn("Due-soon reminder run {} skipped: a run is already in progress", runDate);
+            return List.of();
+        }
+        try {
+            List<ReminderRun> finished = new ArrayList<>();
+            // Nodes start at different partitions, so nodes triggered together spread out before contending
+            int first = Math.floorMod(leaseService.getNodeId().hashCode(), partitions);
+            for (int i = 0; i < partitions; i++) {
+                runPartition(runDate, (first + i) % partitions, mode).ifPresent(finished::add);
+            }
+            return finished;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private Optional<ReminderRun> runPartition(LocalDate runDate, int partition, Mode mode) {
+        ReminderRun.Key key = new ReminderRun.Key(runDate, partition);
+        if (reminderRunRepository.findById(key).filter(ReminderRun::isCompleted).isPresent()) {
+            return Optional.empty();
+        }
+        Optional<JobLease> acquired = leaseService.tryAcquire(LEASE_PREFIX + partition, leaseTtl);
+        if (acquired.isEmpty()) {
+            logger.debug("Due-soon reminder partition {} of {} is being run by another node", partition, runDate);
+            return Optional.empty();
+        }
+        JobLease lease = acquired.get();
+        try {
+            // Read again under the lease: the previous holder may have finished it in the meantime
+            ReminderRun run = reminderRunRepository.findById(key)
+                    .orElseGet(() -> new ReminderRun(runDate, partition, LocalDateTime.now(ZoneOffset.UTC)));
+            if (run.isCompleted()) {
+                return Optional.empty();
+            }
+
+            run = mode == Mode.DIGEST ? sendDigests(run, lease) : sendPerTask(run, lease);
+
+            ReminderRun done = run;
+            done.setCompletedAt(LocalDateTime.now(ZoneOffset.UTC));
+            run = transactionTemplate.execute(status -> {
+                leaseService.checkHeld(lease, leaseTtl);
+                return reminderRunRepository.save(done);
+            });
+            logger.info("Due-soon reminder run {} partition {} completed: {} queued, {} failed",
+                    runDate, partition, run.getSent(), run.getFailed());
+            return Optional.of(run);
+        } catch (LeaseLostException e) {
+            logger.warn("Due-soon reminder run {} partition {} stopped: {}", runDate, partition, e.getMessage());
+            return Optional.empty();
+        } catch (RuntimeException e) {
+            // E.g. a page's emails could not be stored: the page rolled back, and the partition resumes from its
+            // checkpoint at the next takeover check while the other partitions go ahead
+            logger.error("Due-soon reminder run {} partition {} failed", runDate, partition, e);
+            return Optional.empty();
+        } finally {
+            leaseService.release(lease);
+        }
+    }
+
+    // One email per owner: a page of owner ids, then all of their due tasks in one query ordered by owner
+    private ReminderRun sendDigests(ReminderRun run, JobLease lease) {
+        LocalDate start = run.getRunDate();
+        LocalDate end = start.plusDays(1);
+        List<Long> owners;
+        do {
+            owners = taskRepository.findDueSoonOwnersAfter(start, end, run.getLastUserId(), partitions,
+                    run.getPartition(), PageRequest.of(0, pageSize));
+            if (owners.isEmpty()) {
+                break;
+            }
+            Map<Long, List<TaskResponseDto>> byOwner = new LinkedHashMap<>();
+            for (TaskResponseDto task : taskRepository.findDueSoonByOwners(owners, start, end)) {
+                byOwner.computeIfAbsent(task.getUser().getId(), id -> new ArrayList<>()).add(task);
+            }
+            Long lastOwner = owners.get(owners.size() - 1);
+            run = queuePage(run, lease, new ArrayList<>(byOwner.values()), tasks -> digest(start, tasks),
+                    tasks -> tasks.get(0).getUser().getEmail(), checkpoint -> checkpoint.setLastUserId(lastOwner));
+        } while (owners.size() == pageSize);
+        return run;
+    }
+
+    // One email per task, in (dueDate, id) order
+    private ReminderRun sendPerTask(ReminderRun run, JobLease lease) {
+        LocalDate end = run.getRunDate().plusDays(1);
+        LocalDate dueDate = run.getLastDueDate() == null ? run.getRunDate() : run.getLastDueDate();
+        long afterId = run.getLastTaskId();
+        List<TaskResponseDto> page;
+        do {
+            page = taskRepository.findDueSoonPageAfter(dueDate, end, afterId, partitions, run.getPartition(),
+                    PageRequest.of(0, pageSize));
+            if (page.isEmpty()) {
+                break;
+            }
+            TaskResponseDto last = page.get(page.size() - 1);
+            run = queuePage(run, lease, page, this::reminder, task -> "task " + task.getTaskId(), checkpoint -> {
+                checkpoint.setLastDueDate(last.getDueDate());
+                checkpoint.setLastTaskId(last.getTaskId());
+            });
+            dueDate = last.getDueDate();
+            afterId = last.getTaskId();
+        } while (page.size() == pageSize);
+        return run;
+    }
+
+    private record Email(String to, String subject, String body) {
+    }
+
+    private interface Composer<T> {
+        Email compose(T message) throws Exception;
+    }
+
+    // Queues one page and advances the checkpoint past it in a single transaction, fenced by the partition's
+    // lease. An email that cannot be built (e.g. a template error) is counted as failed and skipped rather than
+    // holding up the run. Failing to store one in the outbox is not caught: it has marked the transaction
+    // rollback-only, so the page fails as a whole and is retried from the checkpoint.
+    private <T> ReminderRun queuePage(ReminderRun run, JobLease lease, List<T> messages, Composer<T> composer,
+                                      Function<T, String> describe, Consumer<ReminderRun> advance) {
+        return transactionTemplate.execute(status -> {
+            leaseService.checkHeld(lease, leaseTtl);
+            int failed = 0;
+            for (T message : messages) {
+                Email email;
+                try {
+                    email = composer.compose(message);
+                } catch (Exception e) {
+                    failed++;
+                    logger.error("Failed to build due-soon reminder ({})", describe.apply(message), e);
+                    continue;
+                }
+                emailService.sendEmail(email.to(), email.subject(), email.body());
+            }
+            advance.accept(run);
+            run.setSent(run.getSent() + messages.size() - failed);
+            run.setFailed(run.getFailed() + failed);
+            return reminderRunRepository.save(run);
+        });
+    }
+
+    // The template is parsed once and served from Thymeleaf's template cache afterwards
+    private Email digest(LocalDate today, List<TaskResponseDto> tasks) {
+        UserDto user = tasks.get(0).getUser();
+        String subject = tasks.size() == 1 ? "Reminder: 1 task due soon" : "Reminder: " + tasks.size() + " tasks due soon";
+        Context context = new Context(Locale.ENGLISH);
+        context.setVariable("subject", subject);
+        context.setVariable("name", user.getUsername());
+        context.setVariable("today", today);
+        context.setVariable("tasks", tasks);
+
+        return new Email(user.getEmail(), subject, templateEngine.process(DIGEST_TEMPLATE, context));
+    }
+
+    private Email reminder(TaskResponseDto task) {
+        return new Email(task.getUser().getEmail(), TASK_REMINDER_SUBJECT, taskReminderBody(task));
+    }
+
+    // Also used by DueTimeReminderScheduler
+    static String taskReminderBody(TaskResponseDto task) {
+        return "Hello " + task.getUser().getUsername() + ",\n\n"
+                + "This is a reminder that your task \"" + task.getTaskDescription() + "\" is due on "
+                + task.getDueDate() + ". Please make sure to complete it on time.\n\n"
+                + "Best regards,\nYour Todo App";
+    }
+}
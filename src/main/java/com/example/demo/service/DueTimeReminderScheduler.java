@@ -0,0 +1,272 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.tasks.TaskDueDto;
+import com.example.demo.dto.tasks.TaskItemDto;
+import com.example.demo.entity.Task;
+import com.example.demo.event.TaskChangedEvent;
+import com.example.demo.repository.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Near-real-time alternative to the daily reminder run: one email per task, sent lead-minutes before due-time on
+// its due date, or straight away for a task created or moved later than that. Reminders that fire within the
+// next horizon-hours wait in a DelayQueue (a priority queue ordered by firing time) that one thread takes from
+// as they come due. The horizon is extended every refresh-ms by loading only the due dates entering it from
+// idx_tasks_due_date; task writes on this node reschedule or cancel entries as they commit, so nothing scans
+// the tasks table periodically. Cancelled and rescheduled entries stay in the queue but are skipped when they
+// come up, because only the entry in `scheduled` counts.
+// Sending claims the reminder with a conditional UPDATE of tasks.reminded_due_date and queues the email in the
+// same transaction, so a task is reminded once per due date even when several nodes have it scheduled, and
+// never once it is completed or deleted. Changes made on other nodes are picked up by the hourly resync, which
+// reloads the horizon; on startup everything not yet reminded is loaded, so reminders missed while down go out.
+@Service
+public class DueTimeReminderScheduler implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(DueTimeReminderScheduler.class);
+
+    private record Reminder(long taskId, LocalDate dueDate, Instant fireAt) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Duration.between(Instant.now(), fireAt));
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return fireAt.compareTo(((Reminder) other).fireAt);
+        }
+    }
+
+    private final TaskRepository taskRepository;
+    private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final LocalTime dueTime;
+    private final Duration lead;
+    private final Duration horizon;
+    private final int pageSize;
+
+    private final DelayQueue<Reminder> queue = new DelayQueue<>();
+    private final Map<Long, Reminder> scheduled = new ConcurrentHashMap<>();
+    // Not synchronized: loading runs queries, which would pin the carrier of a virtual scheduler thread
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private volatile Instant loadedUntil; // every reminder firing up to here is scheduled
+    private volatile boolean running;
+    private Thread sender;
+
+    public DueTimeReminderScheduler(TaskRepository taskRepository, EmailService emailService,
+                                    TransactionTemplate transactionTemplate,
+                                    @Value("${app.reminders.realtime.enabled:false}") boolean enabled,
+                                    @Value("${app.reminders.realtime.due-time:09:00}") String dueTime,
+                                    @Value("${app.reminders.realtime.lead-minutes:1440}") long leadMinutes,
+                                    @Value("${app.reminders.realtime.horizon-hours:6}") long horizonHours,
+                                    @Value("${app.reminders.realtime.page-size:500}") int pageSize) {
+        this.taskRepository = taskRepository;
+        this.emailService = emailService;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.dueTime = LocalTime.parse(dueTime);
+        this.lead = Duration.ofMinutes(leadMinutes);
+        this.horizon = Duration.ofHours(horizonHours);
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return enabled;
+    }
+
+    @Override
+    public void start() {
+        // Running before the initial load, so that task changes committing while it runs are not ignored
+        running = true;
+        load(null, Instant.now().plus(horizon));
+        sender = new Thread(this::sendLoop, "due-time-reminders");
+        sender.setDaemon(true);
+        sender.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        sender.interrupt();
+        try {
+            sender.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Number of tasks with a pending reminder in memory
+    public int scheduledCount() {
+        return scheduled.size();
+    }
+
+    // Moves the horizon forward, loading only the due dates that enter it
+    @Scheduled(fixedDelayString = "${app.reminders.realtime.refresh-ms:300000}")
+    public void extendHorizon() {
+        if (running) {
+            load(loadedUntil, Instant.now().plus(horizon));
+        }
+    }
+
+    // Reloads everything not yet reminded from today up to the horizon: on startup, after downtime, and to pick
+    // up tasks written on other nodes. Reminders already scheduled are left as they are.
+    @Scheduled(initialDelayString = "${app.reminders.realtime.resync-ms:3600000}",
+            fixedDelayString = "${app.reminders.realtime.resync-ms:3600000}")
+    public void resync() {
+        if (running) {
+            load(null, Instant.now().plus(horizon));
+        }
+    }
+
+    // Schedules the reminders firing in (after, until]; after == null means every unreminded task due from today
+    private void load(Instant after, Instant until) {
+        loadLock.lock();
+        try {
+            if (after != null && !until.isAfter(after)) {
+                return;
+            }
+            LocalDate from = after == null ? LocalDate.now(zone) : after.plus(lead).atZone(zone).toLocalDate();
+            LocalDate to = until.plus(lead).atZone(zone).toLocalDate();
+            int loaded = 0;
+            LocalDate dueDate = from;
+            long afterId = 0;
+            List<TaskDueDto> page;
+            do {
+                page = taskRepository.findUnremindedDuePageAfter(dueDate, to, afterId, PageRequest.of(0, pageSize));
+                for (TaskDueDto task : page) {
+                    Instant fireAt = fireAt(task.getDueDate());
+                    if (!fireAt.isAfter(until) && (after == null || fireAt.isAfter(after))) {
+                        schedule(task.getTaskId(), task.getDueDate(), fireAt);
+                        loaded++;
+                    }
+                }
+                if (!page.isEmpty()) {
+                    TaskDueDto last = page.get(page.size() - 1);
+                    dueDate = last.getDueDate();
+                    afterId = last.getTaskId();
+                }
+            } while (page.size() == pageSize);
+            if (loadedUntil == null || until.isAfter(loadedUntil)) {
+                loadedUntil = until;
+            }
+            logger.debug("Scheduled {} due-time reminders for due dates {} to {}", loaded, from, to);
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private Instant fireAt(LocalDate dueDate) {
+        return dueDate.atTime(dueTime).atZone(zone).toInstant().minus(lead);
+    }
+
+    private void schedule(long taskId, LocalDate dueDate, Instant fireAt) {
+        Reminder reminder = new Reminder(taskId, dueDate, fireAt);
+        if (!reminder.equals(scheduled.put(taskId, reminder))) {
+            queue.add(reminder);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (!running) {
+            return;
+        }
+        if (event.getCreatedTasks() != null) {
+            for (TaskItemDto task : event.getCreatedTasks()) {
+                reschedule(task.getTaskId(), task.isCompleted() ? null : task.getDueDate());
+            }
+            return;
+        }
+        // Bulk updates only touch status and importance; a completed task is skipped when its reminder comes up
+        if (event.isBulk()) {
+            return;
+        }
+        Task task = event.getTask();
+        boolean pending = task != null && !task.isCompleted() && task.getDueDate() != null
+                && !task.getDueDate().equals(task.getRemindedDueDate());
+        reschedule(event.getTaskId(), pending ? task.getDueDate() : null);
+    }
+
+    // Schedules the task's reminder for dueDate, or cancels it when there is nothing to remind of (null). Like
+    // load(), due dates before today are left alone. Runs under loadLock: a load in progress may have read the
+    // task before this change committed, so wait for it, then compare with the horizon it published; and the
+    // load can no longer overwrite this newer state with what it read. Before the initial load has run there is
+    // no horizon yet, and that load reads the change itself.
+    private void reschedule(Long taskId, LocalDate dueDate) {
+        loadLock.lock();
+        try {
+            if (dueDate == null || dueDate.isBefore(LocalDate.now(zone))) {
+                scheduled.remove(taskId);
+                return;
+            }
+            Instant fireAt = fireAt(dueDate);
+            if (loadedUntil == null || fireAt.isAfter(loadedUntil)) {
+                // Beyond the horizon; scheduled when its due date is loaded
+                scheduled.remove(taskId);
+            } else {
+                schedule(taskId, dueDate, fireAt);
+            }
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private void sendLoop() {
+        while (running) {
+            Reminder reminder;
+            try {
+                reminder = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (!scheduled.remove(reminder.taskId(), reminder)) {
+                continue; // cancelled or rescheduled since
+            }
+            try {
+                send(reminder);
+            } catch (RuntimeException e) {
+                // Left unreminded, so the next resync schedules it again
+                logger.error("Failed to send due-time reminder for task {}", reminder.taskId(), e);
+            }
+        }
+    }
+
+    private void send(Reminder reminder) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (taskRepository.markReminded(reminder.taskId(), reminder.dueDate()) == 0) {
+                return;
+            }
+            taskRepository.findDtoById(reminder.taskId()).ifPresent(task -> emailService.sendEmail(
+                    task.getUser().getEmail(), DueSoonReminderService.TASK_REMINDER_SUBJECT,
+                    DueSoonReminderService.taskReminderBody(task)));
+        });
+    }
+}
@@ -0,0 +1,295 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.EmailOutboxMessage;
+import com.example.demo.entity.EmailOutboxMessage.Status;
+import com.example.demo.repository.EmailOutboxRepository;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Delivers the email outbox in the background. One loop thread claims a batch of due messages in a short
+// transaction (FOR UPDATE SKIP LOCKED, so several nodes can dispatch side by side), splits it across a fixed
+// number of senders that each push their share over a single SMTP connection, then records the outcome:
+// SENT, or another attempt after an exponentially growing delay until max-attempts is reached (FAILED).
+// The loop polls, and EmailService wakes it as soon as a transaction with new messages commits.
+// On shutdown it stops claiming, sends what is already due (bounded by the shutdown timeout) and exits;
+// a claim left unfinished simply expires and the message is sent again, so delivery is at-least-once.
+@Service
+public class EmailOutboxDispatcher implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final EmailOutboxRepository outboxRepository;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long pollIntervalMillis;
+    private final int batchSize;
+    private final int connections;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration shutdownTimeout;
+    private final int retentionDays;
+    private final ExecutorService senders;
+    private final Semaphore wakeUps = new Semaphore(0);
+
+    private volatile boolean running;
+    private volatile long drainDeadline;
+    private Thread loop;
+
+    public EmailOutboxDispatcher(EmailOutboxRepository outboxRepository, JavaMailSender mailSender,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${app.mail.outbox.enabled:true}") boolean enabled,
+                                 @Value("${app.mail.outbox.poll-interval-ms:1000}") long pollIntervalMillis,
+                                 @Value("${app.mail.outbox.batch-size:100}") int batchSize,
+                                 @Value("${app.mail.outbox.connections:4}") int connections,
+                                 @Value("${app.mail.outbox.lease-seconds:300}") long leaseSeconds,
+                                 @Value("${app.mail.outbox.max-attempts:8}") int maxAttempts,
+                                 @Value("${app.mail.outbox.initial-backoff-ms:30000}") long initialBackoffMillis,
+                                 @Value("${app.mail.outbox.max-backoff-ms:3600000}") long maxBackoffMillis,
+                                 @Value("${app.mail.outbox.shutdown-timeout-seconds:30}") long shutdownTimeoutSeconds,
+                                 @Value("${app.mail.outbox.retention-days:7}") int retentionDays) {
+        this.outboxRepository = outboxRepository;
+        this.mailSender = mailSender;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.batchSize = batchSize;
+        this.connections = connections;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = Duration.ofMillis(initialBackoffMillis);
+        this.maxBackoff = Duration.ofMillis(maxBackoffMillis);
+        this.shutdownTimeout = Duration.ofSeconds(shutdownTimeoutSeconds);
+        this.retentionDays = retentionDays;
+        // Platform threads also with spring.threads.virtual.enabled: Angus Mail's SMTPTransport sends inside
+        // synchronized methods, so a virtual sender would pin its carrier for the whole SMTP exchange
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("email-outbox-sender-");
+        threadFactory.setDaemon(true);
+        this.senders = Executors.newFixedThreadPool(connections, threadFactory);
+    }
+
+    // Called after a transaction that queued emails commits, so they go out without waiting for the next poll
+    public void wakeUp() {
+        wakeUps.release();
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return enabled;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        loop = new Thread(this::dispatchLoop, "email-outbox-dispatcher");
+        loop.setDaemon(true);
+        loop.start();
+    }
+
+    @Override
+    public void stop() {
+        drainDeadline = System.nanoTime() + shutdownTimeout.toNanos();
+        running = false;
+        wakeUp();
+        try {
+            loop.join(shutdownTimeout.plusSeconds(1).toMillis());
+            if (loop.isAlive()) {
+                logger.warn("Email outbox not drained within {}; unsent claims will be retried after their lease", shutdownTimeout);
+                loop.interrupt();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        senders.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            int dispatched = dispatchSafely();
+            // A full batch means more is probably due; otherwise wait for the next poll or a wake-up
+            if (dispatched < batchSize) {
+                try {
+                    wakeUps.tryAcquire(pollIntervalMillis, TimeUnit.MILLISECONDS);
+                    wakeUps.drainPermits();
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+        // Drain: everything already due goes out before the context closes
+        while (System.nanoTime() < drainDeadline && !Thread.currentThread().isInterrupted()) {
+            if (dispatchSafely() == 0) {
+                break;
+            }
+        }
+    }
+
+    private int dispatchSafely() {
+        try {
+            return dispatchBatch();
+        } catch (RuntimeException e) {
+            logger.error("Email outbox dispatch failed", e);
+            return 0;
+        }
+    }
+
+    // Claims, sends and records one batch; returns the number of messages claimed
+    public int dispatchBatch() {
+        List<EmailOutboxMessage> batch = transactionTemplate.execute(status -> claimBatch());
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        // Contiguous slices, one per connection
+        int sliceSize = (batch.size() + connections - 1) / connections;
+        List<Future<Map<Long, Exception>>> sends = new ArrayList<>();
+        for (int from = 0; from < batch.size(); from += sliceSize) {
+            List<EmailOutboxMessage> slice = batch.subList(from, Math.min(from + sliceSize, batch.size()));
+            sends.add(senders.submit(() -> deliver(slice)));
+        }
+        Map<Long, Exception> failures = new HashMap<>();
+        for (Future<Map<Long, Exception>> send : sends) {
+            try {
+                failures.putAll(send.get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Email outbox sender failed", e.getCause());
+            } catch (InterruptedException e) {
+                // The claims expire and the messages are retried
+                Thread.currentThread().interrupt();
+                return batch.size();
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> recordOutcome(batch, failures));
+        logger.info("Email outbox: {} sent, {} failed", batch.size() - failures.size(), failures.size());
+        return batch.size();
+    }
+
+    private List<EmailOutboxMessage> claimBatch() {
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        List<EmailOutboxMessage> batch = outboxRepository.findDueForUpdate(Status.PENDING, now, PageRequest.of(0, batchSize));
+        for (EmailOutboxMessage message : batch) {
+            message.setAttempts(message.getAttempts() + 1);
+            message.setNextAttemptAt(now.plus(lease));
+        }
+        return batch;
+    }
+
+    // Sends a slice over one connection (JavaMailSender's batch send) and returns the failures by message id
+    private Map<Long, Exception> deliver(List<EmailOutboxMessage> slice) {
+        Map<Long, Exception> failures = new HashMap<>();
+        Map<MimeMessage, Long> ids = new IdentityHashMap<>();
+        for (EmailOutboxMessage message : slice) {
+            try {
+                ids.put(toMimeMessage(message), message.getId());
+            } catch (MessagingException e) {
+                failures.put(message.getId(), e);
+            }
+        }
+        if (ids.isEmpty()) {
+            return failures;
+        }
+        try {
+            mailSender.send(ids.keySet().toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                ids.values().forEach(id -> failures.put(id, e));
+            }
+            e.getFailedMessages().forEach((message, cause) -> failures.put(ids.get(message), cause));
+        } catch (MailException e) {
+            ids.values().forEach(id -> failures.put(id, e));
+        }
+        return failures;
+    }
+
+    private MimeMessage toMimeMessage(EmailOutboxMessage message) throws MessagingException {
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true);
+        helper.setTo(message.getRecipient());
+        helper.setSubject(message.getSubject());
+        helper.setText(message.getBody(), true);
+        return mimeMessage;
+    }
+
+    private void recordOutcome(List<EmailOutboxMessage> batch, Map<Long, Exception> failures) {
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        List<Long> sent = new ArrayList<>();
+        for (EmailOutboxMessage message : batch) {
+            Exception failure = failures.get(message.getId());
+            if (failure == null) {
+                sent.add(message.getId());
+                continue;
+            }
+            String error = truncate(String.valueOf(failure.getMessage()));
+            if (message.getAttempts() >= maxAttempts) {
+                logger.error("Giving up on email {} to {} after {} attempts: {}",
+                        message.getId(), message.getRecipient(), message.getAttempts(), error);
+                outboxRepository.markFailedAttempt(message.getId(), Status.FAILED, message.getNextAttemptAt(), error);
+            } else {
+                logger.warn("Email {} to {} failed (attempt {}): {}",
+                        message.getId(), message.getRecipient(), message.getAttempts(), error);
+                outboxRepository.markFailedAttempt(message.getId(), Status.PENDING,
+                        now.plus(backoff(message.getAttempts())), error);
+            }
+        }
+        if (!sent.isEmpty()) {
+            outboxRepository.markSent(sent, Status.SENT, now);
+        }
+    }
+
+    // initial-backoff after the first failure, doubling with every further one, capped at max-backoff
+    Duration backoff(int attempts) {
+        int doublings = Math.min(attempts - 1, 30);
+        Duration delay = initialBackoff.multipliedBy(1L << doublings);
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private static String truncate(String error) {
+        return error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    @Scheduled(cron = "0 45 3 * * *")
+    @Transactional
+    public void pruneSent() {
+        LocalDateTime cutoff = LocalDateTime.now(ZoneOffset.UTC).minusDays(retentionDays);
+        int pruned = outboxRepository.deleteSentBefore(Status.SENT, cutoff);
+        logger.info("Pruned {} sent emails older than {}", pruned, cutoff);
+    }
+}
@@ -1,34 +1,45 @@
 package com.example.demo.service;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
+import com.example.demo.entity.EmailOutboxMessage;
+import com.example.demo.repository.EmailOutboxRepository;
+import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 
-
+// Emails go through the outbox: sendEmail only inserts a row, in the caller's transaction when there is one,
+// so the email exists if and only if the change that triggered it commits. EmailOutboxDispatcher delivers it.
 @Service
 public class EmailService {
 
-    private final JavaMailSender mailSender;
+    private final EmailOutboxRepository outboxRepository;
+    private final EmailOutboxDispatcher dispatcher;
     private static final Logger logger = LoggerFactory.getLogger(EmailService.class);
 
-    public EmailService(JavaMailSender mailSender) {
-        this.mailSender = mailSender;
+    public EmailService(EmailOutboxRepository outboxRepository, EmailOutboxDispatcher dispatcher) {
+        this.outboxRepository = outboxRepository;
+        this.dispatcher = dispatcher;
     }
 
-    public void sendEmail(String to, String subject, String text) throws MessagingException {
-        MimeMessage message = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, true);
-
-        helper.setTo(to);
-        helper.setSubject(subject);
-        helper.setText(text, true);
-
-        mailSender.send(message);
-        logger.info("Email sent to: {}", to);
+    @Transactional
+    public void sendEmail(String to, String subject, String text) {
+        EmailOutboxMessage message = outboxRepository.save(
+                new EmailOutboxMessage(to, subject, text, LocalDateTime.now(ZoneOffset.UTC)));
+        logger.debug("Email {} to {} queued", message.getId(), to);
+
+        // Nudge the dispatcher once the row is visible instead of leaving it for the next poll
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatcher.wakeUp();
+                }
+            });
+        }
     }
 }
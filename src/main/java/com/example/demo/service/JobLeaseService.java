@@ -0,0 +1,81 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.JobLease;
+import com.example.demo.exception.LeaseLostException;
+import com.example.demo.repository.JobLeaseRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.UUID;
+
+// Database-backed leases, so that a scheduled job (or one partition of it) runs on a single node of the cluster
+// at a time. A lease is taken only when it is free or expired, and every acquisition gets a new fencing token.
+// Work done under a lease is committed together with checkHeld, which fails once the token is no longer
+// current: a holder stalled past its expiry cannot overwrite what the next holder did.
+// Expiry uses the nodes' clocks, so lease durations should be well above the expected clock skew.
+@Service
+public class JobLeaseService {
+
+    private final JobLeaseRepository leaseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String nodeId;
+
+    public JobLeaseService(JobLeaseRepository leaseRepository, TransactionTemplate transactionTemplate,
+                           @Value("${app.node-id:}") String nodeId) {
+        this.leaseRepository = leaseRepository;
+        this.transactionTemplate = transactionTemplate;
+        // pid@host plus a random suffix, which also tells apart several application contexts in one JVM
+        this.nodeId = nodeId.isBlank()
+                ? ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID().toString().substring(0, 8)
+                : nodeId;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    // The lease on jobName for ttl, unless another node holds it
+    public Optional<JobLease> tryAcquire(String jobName, Duration ttl) {
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        try {
+            return transactionTemplate.execute(status -> {
+                if (leaseRepository.takeOverExpired(jobName, nodeId, now, now.plus(ttl)) == 0) {
+                    if (leaseRepository.existsById(jobName)) {
+                        return Optional.empty();
+                    }
+                    leaseRepository.saveAndFlush(new JobLease(jobName, nodeId, 1, now, now.plus(ttl)));
+                }
+                return leaseRepository.findById(jobName);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another node created the lease row first
+            return Optional.empty();
+        }
+    }
+
+    // Fencing check, to be called in the transaction that writes under the lease. It extends the lease and
+    // keeps its row locked until that transaction ends, so the lease cannot change hands before the commit.
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void checkHeld(JobLease lease, Duration ttl) {
+        LocalDateTime expiresAt = LocalDateTime.now(ZoneOffset.UTC).plus(ttl);
+        if (leaseRepository.updateExpiry(lease.getJobName(), lease.getFencingToken(), expiresAt) == 0) {
+            throw new LeaseLostException("Lease on " + lease.getJobName() + " (token " + lease.getFencingToken()
+                    + ") has been taken over by another node");
+        }
+        lease.setExpiresAt(expiresAt);
+    }
+
+    // Gives a lease up early so another node can take it straight away; a no-op if it was already lost
+    public void release(JobLease lease) {
+        transactionTemplate.executeWithoutResult(status ->
+                leaseRepository.updateExpiry(lease.getJobName(), lease.getFencingToken(), LocalDateTime.now(ZoneOffset.UTC)));
+    }
+}
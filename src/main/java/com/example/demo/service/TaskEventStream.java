@@ -0,0 +1,239 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.tasks.TaskEventDto;
+import com.example.demo.dto.tasks.TaskItemDto;
+import com.example.demo.entity.Task;
+import com.example.demo.event.TaskChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Fans committed task changes out to the caller's open /api/tasks/stream connections.
+// Connections are async SseEmitters, so no request thread waits on them. Each subscriber has a bounded
+// queue drained by a small shared sender pool, one drain at a time per subscriber so events stay ordered.
+// A subscriber that falls a full buffer behind gets a "resync" event and is closed; the client then
+// reconnects and catches up through /api/tasks/changes instead of the server buffering without limit.
+@Component
+public class TaskEventStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskEventStream.class);
+
+    private final Map<Long, Deque<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService senders;
+    private final ScheduledExecutorService heartbeats;
+    private final long timeoutMillis;
+    private final int bufferSize;
+    private final int maxPerUser;
+
+    public TaskEventStream(@Value("${app.tasks.stream.timeout-minutes:30}") long timeoutMinutes,
+                           @Value("${app.tasks.stream.heartbeat-seconds:15}") long heartbeatSeconds,
+                           @Value("${app.tasks.stream.buffer-size:256}") int bufferSize,
+                           @Value("${app.tasks.stream.max-per-user:5}") int maxPerUser,
+                           @Value("${app.tasks.stream.sender-threads:4}") int senderThreads) {
+        this.timeoutMillis = Duration.ofMinutes(timeoutMinutes).toMillis();
+        this.bufferSize = bufferSize;
+        this.maxPerUser = maxPerUser;
+        // Platform threads also with spring.threads.virtual.enabled: SseEmitter.send writes to the socket inside a
+        // synchronized method, which would pin the carrier of a virtual thread
+        this.senders = Executors.newFixedThreadPool(senderThreads, daemonThreads("task-stream-"));
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(daemonThreads("task-stream-heartbeat-"));
+        this.heartbeats.scheduleAtFixedRate(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(userId, emitter, bufferSize);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+
+        // Added inside the map operation: a concurrent remove() drops the deque once it is empty, and a subscriber
+        // added to it afterwards would never receive an event
+        List<Subscriber> evicted = new ArrayList<>();
+        subscribers.compute(userId, (id, own) -> {
+            own = own == null ? new ConcurrentLinkedDeque<>() : own;
+            own.addLast(subscriber);
+            // Bound connections per user: the oldest one gives way
+            while (own.size() > maxPerUser) {
+                evicted.add(own.pollFirst());
+            }
+            return own;
+        });
+        // Completed outside the map operation, since completion calls back into remove()
+        for (Subscriber oldest : evicted) {
+            oldest.emitter.complete();
+        }
+        enqueue(subscriber, Message.event(new TaskEventDto("ready", null, null)));
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        Deque<Subscriber> own = subscribers.get(event.getUserId());
+        if (own == null || own.isEmpty()) {
+            return;
+        }
+        // A batch create is sent as one "created" event per task; a large one overflows the buffer into a resync
+        List<Message> messages = new ArrayList<>();
+        if (event.getCreatedTasks() != null) {
+            for (TaskItemDto item : event.getCreatedTasks()) {
+                messages.add(Message.event(new TaskEventDto("created", item.getTaskId(), item)));
+            }
+        } else {
+            messages.add(Message.event(toDto(event)));
+        }
+        for (Subscriber subscriber : own) {
+            for (Message message : messages) {
+                enqueue(subscriber, message);
+            }
+        }
+    }
+
+    private static TaskEventDto toDto(TaskChangedEvent event) {
+        String type = event.isBulk() ? "bulk-updated" : event.getType().name().toLowerCase();
+        Task task = event.getTask();
+        return new TaskEventDto(type, event.getTaskId(), task == null ? null : TaskItemDto.of(task));
+    }
+
+    private void heartbeat() {
+        for (Deque<Subscriber> own : subscribers.values()) {
+            for (Subscriber subscriber : own) {
+                // A subscriber with a backlog is already receiving data; never let heartbeats overflow it
+                if (subscriber.queue.isEmpty()) {
+                    enqueue(subscriber, Message.HEARTBEAT);
+                }
+            }
+        }
+    }
+
+    private void enqueue(Subscriber subscriber, Message message) {
+        if (!subscriber.queue.offer(message)) {
+            subscriber.overflowed = true;
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            if (subscriber.overflowed) {
+                subscriber.queue.clear();
+                try {
+                    subscriber.emitter.send(Message.event(new TaskEventDto("resync", null, null)).toSse());
+                } catch (IOException | IllegalStateException ignored) {
+                    // the connection is being closed anyway
+                }
+                subscriber.emitter.complete();
+                remove(subscriber);
+                return;
+            }
+            Message message = subscriber.queue.poll();
+            if (message == null) {
+                subscriber.draining.set(false);
+                // Re-check: an event may have arrived between poll() and releasing the flag
+                if ((subscriber.queue.isEmpty() && !subscriber.overflowed) || !subscriber.draining.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            try {
+                subscriber.emitter.send(message.toSse());
+            } catch (IOException | IllegalStateException e) {
+                // Client went away; the container reports completion through the emitter callbacks
+                remove(subscriber);
+                return;
+            }
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (id, own) -> {
+            own.remove(subscriber);
+            return own.isEmpty() ? null : own;
+        });
+    }
+
+    int subscriberCount(Long userId) {
+        Deque<Subscriber> own = subscribers.get(userId);
+        return own == null ? 0 : own.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        for (Deque<Subscriber> own : subscribers.values()) {
+            for (Subscriber subscriber : own) {
+                subscriber.emitter.complete();
+            }
+        }
+        subscribers.clear();
+        senders.shutdown();
+        try {
+            if (!senders.awaitTermination(5, TimeUnit.SECONDS)) {
+                senders.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            senders.shutdownNow();
+        }
+        logger.info("Task event stream stopped");
+    }
+
+    private static CustomizableThreadFactory daemonThreads(String prefix) {
+        CustomizableThreadFactory factory = new CustomizableThreadFactory(prefix);
+        factory.setDaemon(true);
+        return factory;
+    }
+
+    // Immutable queue entry; the SseEventBuilder is created per send because builders are single-use
+    private record Message(TaskEventDto event) {
+        static final Message HEARTBEAT = new Message(null);
+
+        static Message event(TaskEventDto event) {
+            return new Message(event);
+        }
+
+        SseEmitter.SseEventBuilder toSse() {
+            return event == null
+                    ? SseEmitter.event().comment("heartbeat")
+                    : SseEmitter.event().name(event.getType()).data(event, MediaType.APPLICATION_JSON);
+        }
+    }
+
+    private static final class Subscriber {
+        final Long userId;
+        final SseEmitter emitter;
+        final BlockingQueue<Message> queue;
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean overflowed;
+
+        Subscriber(Long userId, SseEmitter emitter, int bufferSize) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.tasks.TaskItemDto;
+import com.example.demo.entity.Task;
+import com.example.demo.repository.TaskRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+// Streams every task of a user to an output stream as NDJSON or CSV.
+// Rows come from a fetch-size-limited cursor and each task is detached once written, so neither the
+// persistence context nor the response body grows with the number of tasks.
+@Service
+public class TaskExportService {
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format from(String value) {
+            if (value == null || value.isBlank()) {
+                return NDJSON;
+            }
+            try {
+                return Format.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export format: " + value);
+            }
+        }
+    }
+
+    private static final String CSV_HEADER =
+            "taskId,taskTitle,taskDescription,category,dueDate,progress,isCompleted,isImportant";
+    // Push bytes to the client periodically instead of holding them in the servlet buffer
+    private static final int FLUSH_EVERY = 500;
+
+    private final TaskRepository taskRepository;
+    private final ObjectWriter itemWriter;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public TaskExportService(TaskRepository taskRepository, ObjectMapper objectMapper) {
+        this.taskRepository = taskRepository;
+        this.itemWriter = objectMapper.writerFor(TaskItemDto.class);
+    }
+
+    @Transactional
+    public long export(Long userId, Format format, OutputStream out) throws IOException {
+        try (Stream<Task> tasks = taskRepository.streamByUserId(userId)) {
+            return format == Format.CSV ? writeCsv(tasks.iterator(), out) : writeNdjson(tasks.iterator(), out);
+        }
+    }
+
+    private long writeNdjson(Iterator<Task> tasks, OutputStream out) throws IOException {
+        long written = 0;
+        // The generator must not close the servlet stream; the container owns it
+        try (JsonGenerator generator = itemWriter.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            while (tasks.hasNext()) {
+                Task task = tasks.next();
+                itemWriter.writeValue(generator, TaskItemDto.of(task));
+                generator.writeRaw('\n');
+                entityManager.detach(task);
+                if (++written % FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        return written;
+    }
+
+    private long writeCsv(Iterator<Task> tasks, OutputStream out) throws IOException {
+        long written = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write("\r\n");
+        while (tasks.hasNext()) {
+            Task task = tasks.next();
+            writer.write(task.getId().toString());
+            writer.write(',');
+            writer.write(csv(task.getTaskTitle()));
+            writer.write(',');
+            writer.write(csv(task.getTaskDescription()));
+            writer.write(',');
+            writer.write(csv(task.getCategory()));
+            writer.write(',');
+            writer.write(task.getDueDate() == null ? "" : task.getDueDate().toString());
+            writer.write(',');
+            writer.write(Integer.toString(task.getProgress()));
+            writer.write(',');
+            writer.write(Boolean.toString(task.isCompleted()));
+            writer.write(',');
+            writer.write(Boolean.toString(task.isImportant()));
+            writer.write("\r\n");
+            entityManager.detach(task);
+            if (++written % FLUSH_EVERY == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return written;
+    }
+
+    // RFC 4180: quote fields containing a separator, quote or line break, doubling embedded quotes
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
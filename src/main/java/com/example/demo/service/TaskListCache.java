@@ -0,0 +1,52 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.tasks.TaskItemDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Per-user snapshot of the full task list, from which TaskService derives the completed/important views.
+// Each snapshot is stamped with the users.task_version it was loaded under and only served for that version
+// (or a newer one), so a write that commits on another node or races a reload is never hidden. TaskService
+// also drops the snapshot synchronously on every write. Bounded by the total number of cached tasks, so a
+// few users with very large lists push out many small ones rather than growing the heap.
+@Component
+public class TaskListCache {
+
+    private final Cache<Long, Snapshot> snapshots;
+
+    public TaskListCache(@Value("${app.tasks.list-cache.max-tasks:200000}") long maxTasks,
+                         @Value("${app.tasks.list-cache.ttl-seconds:600}") long ttlSeconds) {
+        this.snapshots = Caffeine.newBuilder()
+                .maximumWeight(maxTasks)
+                .weigher((Long userId, Snapshot snapshot) -> snapshot.tasks().size() + 1)
+                .expireAfterAccess(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    // The user's tasks as of taskVersion; the loader runs when there is no snapshot at least that recent
+    public List<TaskItemDto> get(Long userId, long taskVersion, Supplier<List<TaskItemDto>> loader) {
+        Snapshot cached = snapshots.getIfPresent(userId);
+        if (cached != null && cached.version() >= taskVersion) {
+            return cached.tasks();
+        }
+        Snapshot loaded = new Snapshot(taskVersion, List.copyOf(loader.get()));
+        // A slower reload of an older version must not replace a newer snapshot stored meanwhile
+        snapshots.asMap().merge(userId, loaded,
+                (current, candidate) -> candidate.version() >= current.version() ? candidate : current);
+        return loaded.tasks();
+    }
+
+    public void invalidate(Long userId) {
+        snapshots.invalidate(userId);
+    }
+
+    // The list is immutable and shared by every response built from it
+    private record Snapshot(long version, List<TaskItemDto> tasks) {
+    }
+}
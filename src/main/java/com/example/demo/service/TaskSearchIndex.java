@@ -0,0 +1,365 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.tasks.TaskChangeRowDto;
+import com.example.demo.entity.TaskTombstone;
+import com.example.demo.repository.TaskRepository;
+import com.example.demo.repository.TaskTombstoneRepository;
+import com.example.demo.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-process trigram index over task titles and descriptions, partitioned per user.
+// A query is answered by intersecting the posting lists of its trigrams and verifying the surviving
+// candidates, so substring search never scans the tasks table. The index is built from the database in the
+// background after startup; until that finishes, searches fall back to SQL. It is then kept current from the
+// change feed (tasks.change_seq and task_tombstones) rather than from local events, so writes made on any node
+// are seen: before a search the user's partition is brought up to the task_version the caller has read.
+// The index lives on the heap of every node, so partitions nobody searched for idle-minutes are dropped and
+// reloaded from the change feed by the user's next search.
+@Component
+public class TaskSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskSearchIndex.class);
+    private static final int GRAM = 3;
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private static final int SYNC_BATCH_SIZE = 1000;
+
+    private final TaskRepository taskRepository;
+    private final TaskTombstoneRepository taskTombstoneRepository;
+    private final UserRepository userRepository;
+    // A partition last synced longer ago than this may have missed deletions whose tombstones were pruned
+    private final long maxSyncAgeMillis;
+    private final long idleMillis;
+    private final Map<Long, UserIndex> users = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    public TaskSearchIndex(TaskRepository taskRepository, TaskTombstoneRepository taskTombstoneRepository,
+                           UserRepository userRepository,
+                           @Value("${app.tasks.changes.tombstone-retention-days:30}") int tombstoneRetentionDays,
+                           @Value("${app.tasks.search.idle-minutes:60}") long idleMinutes) {
+        this.taskRepository = taskRepository;
+        this.taskTombstoneRepository = taskTombstoneRepository;
+        this.userRepository = userRepository;
+        this.maxSyncAgeMillis = Duration.ofDays(tombstoneRetentionDays).toMillis();
+        this.idleMillis = Duration.ofMinutes(idleMinutes).toMillis();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Builds on its own thread, so startup does not wait for a scan of every task
+    @EventListener(ApplicationReadyEvent.class)
+    public void startRebuild() {
+        Thread rebuilder = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                // Searches keep using SQL on this node
+                logger.error("Failed to build the task search index", e);
+            }
+        }, "task-search-index-rebuild");
+        rebuilder.setDaemon(true);
+        rebuilder.start();
+    }
+
+    // Every user's task_version is read before the tasks, so the scan reflects at least those versions and each
+    // partition starts syncing from there. Users registered during the scan start from the beginning of their feed.
+    private void rebuild() {
+        long started = System.currentTimeMillis();
+        Map<Long, Long> versions = new HashMap<>();
+        for (Object[] row : userRepository.findAllTaskVersions()) {
+            versions.put((Long) row[0], (Long) row[1]);
+        }
+        long afterId = 0;
+        int indexed = 0;
+        List<Object[]> batch;
+        do {
+            batch = taskRepository.findSearchDocumentsAfter(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            for (Object[] row : batch) {
+                Long taskId = (Long) row[0];
+                userIndex((Long) row[1]).put(taskId, (String) row[2], (String) row[3]);
+                indexed++;
+                afterId = taskId;
+            }
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+        versions.forEach((userId, version) -> userIndex(userId).syncedTo(version, started));
+        ready = true;
+        logger.info("Task search index built: {} tasks in {} ms", indexed, System.currentTimeMillis() - started);
+    }
+
+    // Returns the ids of the user's matching tasks, best match first: title hits rank above description hits,
+    // and earlier hits rank above later ones.
+    // taskVersion is the user's task_version read by the caller, so the result reflects every change up to it.
+    public List<Long> search(Long userId, long taskVersion, String query, int page, int size) {
+        String needle = normalize(query);
+        if (needle.isEmpty()) {
+            return Collections.emptyList();
+        }
+        UserIndex index = synced(userId, taskVersion);
+        List<Hit> hits = index.search(needle);
+        hits.sort(Comparator.comparingInt((Hit hit) -> hit.score)
+                .thenComparingInt(hit -> hit.position)
+                .thenComparing(hit -> hit.taskId, Comparator.reverseOrder()));
+        int from = (int) Math.min((long) page * size, hits.size());
+        int to = (int) Math.min((long) from + size, hits.size());
+        List<Long> ids = new ArrayList<>(to - from);
+        for (Hit hit : hits.subList(from, to)) {
+            ids.add(hit.taskId);
+        }
+        return ids;
+    }
+
+    // Applies the user's changes after the partition's position from the change feed. Rows are the tasks' current
+    // state and task ids are never reused, so applying every written row before every tombstone is correct
+    // however the two sources interleave. Rows newer than taskVersion may be applied too; the position only
+    // moves to taskVersion, below which every change had committed when the version was read, and those rows
+    // are applied again by the next sync.
+    private UserIndex synced(Long userId, long taskVersion) {
+        UserIndex index = userIndex(userId);
+        index.lastSearchedAt = System.currentTimeMillis();
+        if (index.syncedSeq >= taskVersion) {
+            return index;
+        }
+        index.syncLock.lock();
+        try {
+            if (index.syncedSeq >= taskVersion) {
+                return index;
+            }
+            long started = System.currentTimeMillis();
+            UserIndex target = index;
+            long changeSeq = index.syncedSeq;
+            long afterId = index.syncedAfterId;
+            if (started - index.syncedAt > maxSyncAgeMillis) {
+                // Reload the whole partition from the tasks table; searches meanwhile use the old one
+                target = new UserIndex();
+                changeSeq = 0;
+                afterId = 0;
+            }
+            long writtenSeq = changeSeq;
+            long writtenId = afterId;
+            List<TaskChangeRowDto> written;
+            do {
+                written = taskRepository.findChangesAfter(userId, writtenSeq, writtenId, PageRequest.of(0, SYNC_BATCH_SIZE));
+                for (TaskChangeRowDto row : written) {
+                    target.put(row.getTaskId(), row.getTaskTitle(), row.getTaskDescription());
+                    writtenSeq = row.getChangeSeq();
+                    writtenId = row.getTaskId();
+                }
+            } while (written.size() == SYNC_BATCH_SIZE);
+            List<TaskTombstone> deletions;
+            do {
+                deletions = taskTombstoneRepository.findChangesAfter(userId, changeSeq, afterId, PageRequest.of(0, SYNC_BATCH_SIZE));
+                for (TaskTombstone tombstone : deletions) {
+                    target.remove(tombstone.getTaskId());
+                    changeSeq = tombstone.getChangeSeq();
+                    afterId = tombstone.getTaskId();
+                }
+            } while (deletions.size() == SYNC_BATCH_SIZE);
+            if (target != index) {
+                index.replaceWith(target);
+            }
+            index.syncedTo(taskVersion, started);
+            return index;
+        } finally {
+            index.syncLock.unlock();
+        }
+    }
+
+    // A search racing the eviction finishes on the dropped partition; the next one loads a new partition
+    @Scheduled(fixedDelayString = "${app.tasks.search.evict-check-ms:60000}")
+    public void evictIdle() {
+        if (!ready) {
+            return;
+        }
+        long idleSince = System.currentTimeMillis() - idleMillis;
+        users.values().removeIf(index -> index.lastSearchedAt < idleSince);
+    }
+
+    private UserIndex userIndex(Long userId) {
+        return users.computeIfAbsent(userId, id -> new UserIndex());
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> grams(String title, String description) {
+        Set<String> grams = new HashSet<>();
+        addGrams(grams, title);
+        addGrams(grams, description);
+        return grams;
+    }
+
+    private static void addGrams(Set<String> grams, String text) {
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+    }
+
+    private static final class Doc {
+        final String title;
+        final String description;
+        final Set<String> grams;
+
+        Doc(String title, String description) {
+            this.title = title;
+            this.description = description;
+            this.grams = grams(title, description);
+        }
+    }
+
+    private static final class Hit {
+        final long taskId;
+        final int score; // lower is better
+        final int position;
+
+        Hit(long taskId, int score, int position) {
+            this.taskId = taskId;
+            this.score = score;
+            this.position = position;
+        }
+    }
+
+    private static final class UserIndex {
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        // Held while syncing from the change feed, so one request per user does it and others wait for the result
+        private final Lock syncLock = new ReentrantLock();
+        private Map<Long, Doc> docs = new HashMap<>();
+        private Map<String, Set<Long>> postings = new HashMap<>();
+        // Change feed position: every change up to (syncedSeq, syncedAfterId) is applied. syncedAt is when the
+        // sync that reached it started.
+        private volatile long syncedSeq;
+        private volatile long syncedAfterId;
+        private volatile long syncedAt;
+        private volatile long lastSearchedAt = System.currentTimeMillis();
+
+        void syncedTo(long taskVersion, long startedAt) {
+            if (taskVersion > syncedSeq) {
+                // All of the version's own changes are included, whatever their task ids
+                syncedAfterId = Long.MAX_VALUE;
+                syncedSeq = taskVersion;
+            }
+            syncedAt = startedAt;
+        }
+
+        void replaceWith(UserIndex other) {
+            lock.writeLock().lock();
+            try {
+                docs = other.docs;
+                postings = other.postings;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void put(Long taskId, String rawTitle, String rawDescription) {
+            Doc doc = new Doc(normalize(rawTitle), normalize(rawDescription));
+            lock.writeLock().lock();
+            try {
+                Doc previous = docs.get(taskId);
+                if (previous != null) {
+                    if (previous.title.equals(doc.title) && previous.description.equals(doc.description)) {
+                        return;
+                    }
+                    unlink(taskId, previous);
+                }
+                docs.put(taskId, doc);
+                for (String gram : doc.grams) {
+                    postings.computeIfAbsent(gram, g -> new HashSet<>()).add(taskId);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(Long taskId) {
+            lock.writeLock().lock();
+            try {
+                Doc previous = docs.remove(taskId);
+                if (previous != null) {
+                    unlink(taskId, previous);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        List<Hit> search(String needle) {
+            lock.readLock().lock();
+            try {
+                List<Hit> hits = new ArrayList<>();
+                for (Long taskId : candidates(needle)) {
+                    Doc doc = docs.get(taskId);
+                    int inTitle = doc.title.indexOf(needle);
+                    if (inTitle >= 0) {
+                        hits.add(new Hit(taskId, inTitle == 0 ? 0 : 1, inTitle));
+                        continue;
+                    }
+                    int inDescription = doc.description.indexOf(needle);
+                    if (inDescription >= 0) {
+                        hits.add(new Hit(taskId, 2, inDescription));
+                    }
+                }
+                return hits;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        // Intersects posting lists smallest-first; queries shorter than a trigram verify every document
+        private Set<Long> candidates(String needle) {
+            if (needle.length() < GRAM) {
+                return docs.keySet();
+            }
+            List<Set<Long>> lists = new ArrayList<>();
+            for (String gram : grams(needle, "")) {
+                Set<Long> posting = postings.get(gram);
+                if (posting == null) {
+                    return Collections.emptySet();
+                }
+                lists.add(posting);
+            }
+            lists.sort(Comparator.comparingInt(Set::size));
+            Set<Long> result = new HashSet<>(lists.get(0));
+            for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+                result.retainAll(lists.get(i));
+            }
+            return result;
+        }
+
+        private void unlink(Long taskId, Doc doc) {
+            for (String gram : doc.grams) {
+                Set<Long> posting = postings.get(gram);
+                if (posting != null) {
+                    posting.remove(taskId);
+                    if (posting.isEmpty()) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+}
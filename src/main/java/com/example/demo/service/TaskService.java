@@ -1,24 +1,62 @@
 package com.example.demo.service;
 
 import com.example.demo.dto.UserDto;
+import com.example.demo.dto.tasks.BatchItemResultDto;
+import com.example.demo.dto.tasks.TaskCategorySummaryDto;
+import com.example.demo.dto.tasks.CompactTaskListDto;
+import com.example.demo.dto.tasks.TaskItemDto;
+import com.example.demo.dto.tasks.TaskBulkUpdateDto;
+import com.example.demo.dto.tasks.TaskChangeRowDto;
+import com.example.demo.dto.tasks.TaskChangesDto;
+import com.example.demo.dto.tasks.TaskCountsDto;
+import com.example.demo.dto.tasks.TaskFilterDto;
+import com.example.demo.dto.tasks.TaskPageDto;
+import com.example.demo.dto.tasks.TaskQueryDto;
+import com.example.demo.dto.tasks.TaskQueryResultDto;
 import com.example.demo.dto.tasks.TaskResponseDto;
+import com.example.demo.dto.tasks.TaskSummaryDto;
 import com.example.demo.entity.Task;
+import com.example.demo.event.TaskChangedEvent;
+import com.example.demo.entity.TaskTombstone;
 import com.example.demo.entity.User;
+import com.example.demo.exception.ChangeCursorExpiredException;
+import com.example.demo.exception.TaskBatchValidationException;
 import com.example.demo.exception.TaskNotFoundException;
+import com.example.demo.exception.TaskVersionConflictException;
 import com.example.demo.repository.TaskRepository;
+import com.example.demo.repository.TaskSpecifications;
+import com.example.demo.repository.TaskTombstoneRepository;
 import com.example.demo.repository.UserRepository;
-import jakarta.mail.MessagingException;
+import com.example.demo.util.ChangeCursor;
+import com.example.demo.util.TaskCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,47 +64,318 @@ public class TaskService {
 
     private final TaskRepository taskRepository;
     private final UserRepository userRepository;
-    private final EmailService emailService;
+    private final TaskSearchIndex taskSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TaskTombstoneRepository taskTombstoneRepository;
+    private final TaskListCache taskListCache;
+    private final int maxBatchSize;
+    private final Duration tombstoneRetention;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    // Matches hibernate.jdbc.batch_size: flush one full JDBC batch, then clear the persistence context
+    private static final int BATCH_FLUSH_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    // OFFSET paging reads and discards every row before the page; deeper pages need narrower filters
+    private static final int MAX_QUERY_OFFSET = 100_000;
+    private static final Set<String> SORTABLE_FIELDS = Set.of("id", "dueDate", "progress", "taskTitle", "category");
 
     private static final Logger logger = LoggerFactory.getLogger(EmailService.class);
 
     @Autowired
-    public TaskService(TaskRepository taskRepository, UserRepository userRepository,EmailService emailService) {
+    public TaskService(TaskRepository taskRepository, UserRepository userRepository,
+                       TaskSearchIndex taskSearchIndex, ApplicationEventPublisher eventPublisher,
+                       TaskTombstoneRepository taskTombstoneRepository, TaskListCache taskListCache,
+                       @Value("${app.tasks.batch.max-size:5000}") int maxBatchSize,
+                       @Value("${app.tasks.changes.tombstone-retention-days:30}") int tombstoneRetentionDays) {
         this.taskRepository = taskRepository;
         this.userRepository = userRepository;
-        this.emailService = emailService;
+        this.taskSearchIndex = taskSearchIndex;
+        this.eventPublisher = eventPublisher;
+        this.taskTombstoneRepository = taskTombstoneRepository;
+        this.taskListCache = taskListCache;
+        this.maxBatchSize = maxBatchSize;
+        this.tombstoneRetention = Duration.ofDays(tombstoneRetentionDays);
     }
 
     @Transactional // Ensure transaction management
-    public Task createTask(Task task, String email) {
+    public Task createTask(Task task, Long userId) {
         try {
-            User user = getUser(email);
-            task.setUser(user);
-            return taskRepository.save(task);
+            // A reference proxy is enough for the foreign key; the owner row is not read
+            task.setUser(userRepository.getReferenceById(userId));
+            task.setVersion(null); // a new task always starts at version 0
+            task.setChangeSeq(nextChangeSeq(userId));
+            Task savedTask = taskRepository.save(task);
+            eventPublisher.publishEvent(TaskChangedEvent.created(savedTask));
+            return savedTask;
         } catch (Exception e) {
             // Use a logger instead of printStackTrace
             throw new RuntimeException("Failed to create task: " + e.getMessage());
         }
     }
 
+    // Create many tasks in one transaction. Every element is validated before anything is written, so a batch
+    // is either rejected as a whole (with the problems of each element) or inserted as a whole. Inserts are
+    // flushed BATCH_FLUSH_SIZE at a time as JDBC batches and the persistence context is cleared in between.
+    @Transactional
+    public List<BatchItemResultDto> createTasks(List<Task> tasks, Long userId) {
+        if (tasks == null || tasks.isEmpty()) {
+            throw new IllegalArgumentException("The batch must contain at least one task.");
+        }
+        if (tasks.size() > maxBatchSize) {
+            throw new IllegalArgumentException("A batch may contain at most " + maxBatchSize + " tasks.");
+        }
+
+        List<BatchItemResultDto> invalid = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            List<String> errors = validate(tasks.get(i));
+            if (!errors.isEmpty()) {
+                invalid.add(BatchItemResultDto.invalid(i, errors));
+            }
+        }
+        if (!invalid.isEmpty()) {
+            throw new TaskBatchValidationException(invalid.size() + " of " + tasks.size() + " tasks are invalid.", invalid);
+        }
+
+        User owner = userRepository.getReferenceById(userId);
+        long changeSeq = nextChangeSeq(userId);
+        List<BatchItemResultDto> results = new ArrayList<>(tasks.size());
+        List<TaskItemDto> created = new ArrayList<>(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            task.setId(null); // ids and versions are always generated
+            task.setVersion(null);
+            task.setUser(owner);
+            task.setChangeSeq(changeSeq);
+            entityManager.persist(task);
+            results.add(BatchItemResultDto.created(i, task.getId()));
+            created.add(TaskItemDto.of(task));
+            if ((i + 1) % BATCH_FLUSH_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        eventPublisher.publishEvent(TaskChangedEvent.batchCreated(userId, created));
+        return results;
+    }
+
+    private static List<String> validate(Task task) {
+        List<String> errors = new ArrayList<>();
+        if (task == null) {
+            errors.add("Task must not be null.");
+            return errors;
+        }
+        if (task.getTaskTitle() == null || task.getTaskTitle().isBlank()) {
+            errors.add("taskTitle is required.");
+        } else if (task.getTaskTitle().length() > 255) {
+            errors.add("taskTitle must be at most 255 characters.");
+        }
+        if (task.getTaskDescription() == null || task.getTaskDescription().isBlank()) {
+            errors.add("taskDescription is required.");
+        } else if (task.getTaskDescription().length() > 255) {
+            errors.add("taskDescription must be at most 255 characters.");
+        }
+        if (task.getCategory() != null && task.getCategory().length() > 255) {
+            errors.add("category must be at most 255 characters.");
+        }
+        if (task.getProgress() < 0 || task.getProgress() > 100) {
+            errors.add("progress must be between 0 and 100.");
+        }
+        return errors;
+    }
+
+    // Monotonic counter of changes to the user's tasks, bumped in the same transaction as each change.
+    // Read it before the tasks themselves: a response can then at worst carry an older version than its
+    // data (one extra full reply later), never a newer one (which would hide a change behind a 304).
+    public long getTaskVersion(Long userId) {
+        return userRepository.findTaskVersionById(userId).orElse(0L);
+    }
+
+    // Bumps the counter and returns the new value, which every mutation stamps on the rows it writes
+    // (tasks.change_seq, task_tombstones.change_seq). Must run before those writes: the UPDATE locks the
+    // user's row until commit, so a user's changes commit in sequence order and a change-feed reader that
+    // sees sequence n has already seen everything below it. Also drops the user's cached task list.
+    private long nextChangeSeq(Long userId) {
+        userRepository.incrementTaskVersion(userId);
+        taskListCache.invalidate(userId);
+        return userRepository.findTaskVersionById(userId)
+                .orElseThrow(() -> new IllegalStateException("User " + userId + " does not exist."));
+    }
+
     // Get all tasks for the authenticated user
-    public List<TaskResponseDto> getAllTasks(String email) {
-        User user = getUser(email);
-        List<Task> tasks = taskRepository.findByUser(user);
-        return tasks.stream().map(this::convertToDTO).collect(Collectors.toList());
+    public CompactTaskListDto getAllTasks(UserDto owner) {
+        return new CompactTaskListDto(owner, taskSnapshot(owner.getId()));
+    }
+
+    // The user's full task list from TaskListCache, reloaded when the task version has moved on
+    private List<TaskItemDto> taskSnapshot(Long userId) {
+        long taskVersion = getTaskVersion(userId);
+        return taskListCache.get(userId, taskVersion, () -> taskRepository.findItemsByUserId(userId));
+    }
+
+    // Dashboard aggregates from one GROUP BY category query; no task bodies are read or returned
+    public TaskSummaryDto getSummary(Long userId) {
+        List<TaskCategorySummaryDto> categories = taskRepository.summarizeByCategory(userId, LocalDate.now());
+        long total = 0, completed = 0, important = 0, overdue = 0, progressSum = 0;
+        for (TaskCategorySummaryDto category : categories) {
+            total += category.getTotal();
+            completed += category.getCompleted();
+            important += category.getImportant();
+            overdue += category.getOverdue();
+            progressSum += category.getProgressSum();
+        }
+        double averageProgress = total == 0 ? 0.0 : (double) progressSum / total;
+        return new TaskSummaryDto(total, completed, important, overdue, averageProgress, categories);
+    }
+
+    // Get one keyset page of the user's tasks in a stable (id) or (dueDate, id) order
+    public TaskPageDto getTaskPage(UserDto owner, TaskCursor.Sort sort, String cursor, Integer size) {
+        Long userId = owner.getId();
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        TaskCursor position = cursor == null || cursor.isBlank() ? null : TaskCursor.decode(cursor, sort);
+        // One extra row tells us whether another page exists without a count query
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<TaskItemDto> tasks;
+        if (sort == TaskCursor.Sort.ID) {
+            tasks = taskRepository.findPageOrderById(userId, position == null ? 0L : position.getId(), limit);
+        } else if (position != null && position.isUndated()) {
+            tasks = taskRepository.findUndatedPageAfter(userId, position.getId(), limit);
+        } else {
+            tasks = new ArrayList<>(position == null
+                    ? taskRepository.findFirstDatedPage(userId, limit)
+                    : taskRepository.findDatedPageAfter(userId, position.getDueDate(), position.getId(), limit));
+            // Dated tasks are exhausted: continue with the undated ones, which sort last
+            if (tasks.size() <= pageSize) {
+                tasks.addAll(taskRepository.findUndatedPageAfter(userId, 0L, PageRequest.of(0, pageSize + 1 - tasks.size())));
+            }
+        }
+
+        String nextCursor = null;
+        if (tasks.size() > pageSize) {
+            tasks = tasks.subList(0, pageSize);
+            TaskItemDto last = tasks.get(pageSize - 1);
+            nextCursor = new TaskCursor(sort, sort == TaskCursor.Sort.ID ? null : last.getDueDate(), last.getTaskId()).encode();
+        }
+        return new TaskPageDto(new CompactTaskListDto(owner, tasks), nextCursor);
+    }
+
+    // Any combination of filters, sorted and paged, plus facet counts: two statements for the whole dashboard
+    public TaskQueryResultDto queryTasks(UserDto owner, TaskQueryDto query) {
+        int pageSize = query.getSize() == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(query.getSize(), MAX_PAGE_SIZE));
+        int page = Math.max(query.getPage(), 0);
+        if ((long) page * pageSize > MAX_QUERY_OFFSET) {
+            throw new IllegalArgumentException("Results are available up to offset " + MAX_QUERY_OFFSET + "; narrow the filters.");
+        }
+
+        Specification<Task> base = Specification.where(TaskSpecifications.ownedBy(owner.getId()))
+                .and(TaskSpecifications.inCategory(query.getCategory()))
+                .and(TaskSpecifications.dueFrom(query.getDueFrom()))
+                .and(TaskSpecifications.dueTo(query.getDueTo()))
+                .and(TaskSpecifications.progressAtLeast(query.getMinProgress()))
+                .and(TaskSpecifications.progressAtMost(query.getMaxProgress()));
+        Specification<Task> status = Specification.where(TaskSpecifications.isCompleted(query.getCompleted()))
+                .and(TaskSpecifications.isImportant(query.getImportant()));
+
+        List<TaskItemDto> tasks = new ArrayList<>(taskRepository.findItems(
+                base.and(status), parseSort(query.getSort()), page * pageSize, pageSize + 1));
+        boolean hasNext = tasks.size() > pageSize;
+        if (hasNext) {
+            tasks = tasks.subList(0, pageSize);
+        }
+        TaskCountsDto counts = taskRepository.countFacets(base, status);
+        return new TaskQueryResultDto(owner, tasks, counts, page, pageSize, hasNext);
+    }
+
+    // One page of the user's changes after the "since" cursor (everything when it is absent): tasks written
+    // since then with their current state, and ids of tasks deleted since then. Both sources are read in
+    // (changeSeq, id) order and merged, so a page boundary never skips or repeats a change.
+    public TaskChangesDto getChanges(Long userId, String since, Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        long now = System.currentTimeMillis();
+        ChangeCursor position = since == null || since.isBlank() ? ChangeCursor.start(now) : ChangeCursor.decode(since);
+        if (position.getIssuedAt() < now - tombstoneRetention.toMillis()) {
+            // Deletions after this cursor may already have been pruned
+            throw new ChangeCursorExpiredException("The sync cursor has expired; fetch all tasks again.");
+        }
+
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<TaskChangeRowDto> written = taskRepository.findChangesAfter(userId, position.getChangeSeq(), position.getTaskId(), limit);
+        List<TaskTombstone> deletions = taskTombstoneRepository.findChangesAfter(userId, position.getChangeSeq(), position.getTaskId(), limit);
+
+        List<TaskItemDto> changed = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        long lastSeq = position.getChangeSeq();
+        long lastId = position.getTaskId();
+        int w = 0;
+        int d = 0;
+        while (changed.size() + deleted.size() < pageSize && (w < written.size() || d < deletions.size())) {
+            boolean takeWritten = d >= deletions.size() || (w < written.size()
+                    && compareChange(written.get(w).getChangeSeq(), written.get(w).getTaskId(),
+                    deletions.get(d).getChangeSeq(), deletions.get(d).getTaskId()) < 0);
+            if (takeWritten) {
+                TaskChangeRowDto row = written.get(w++);
+                changed.add(row.toItem());
+                lastSeq = row.getChangeSeq();
+                lastId = row.getTaskId();
+            } else {
+                TaskTombstone tombstone = deletions.get(d++);
+                deleted.add(tombstone.getTaskId());
+                lastSeq = tombstone.getChangeSeq();
+                lastId = tombstone.getTaskId();
+            }
+        }
+        boolean hasMore = w < written.size() || d < deletions.size();
+        // A complete answer is valid from now on; a partial one only as long as the cursor it continues
+        long issuedAt = hasMore ? position.getIssuedAt() : now;
+        return new TaskChangesDto(changed, deleted, new ChangeCursor(lastSeq, lastId, issuedAt).encode(), hasMore);
+    }
+
+    private static int compareChange(long seqA, long idA, long seqB, long idB) {
+        return seqA != seqB ? Long.compare(seqA, seqB) : Long.compare(idA, idB);
+    }
+
+    // Tombstones outlive every valid cursor by a day, which absorbs clock differences between nodes
+    @Scheduled(cron = "0 30 3 * * *")
+    @Transactional
+    public void pruneTombstones() {
+        LocalDateTime cutoff = LocalDateTime.now(ZoneOffset.UTC).minus(tombstoneRetention).minusDays(1);
+        int pruned = taskTombstoneRepository.deleteByDeletedAtBefore(cutoff);
+        logger.info("Pruned {} task tombstones older than {}", pruned, cutoff);
+    }
+
+    // "field,direction"; id is always appended as a tie-breaker so pages are stable
+    private static Sort parseSort(String sort) {
+        String[] parts = (sort == null || sort.isBlank() ? "id" : sort).split(",");
+        String property = parts[0].trim();
+        if (!SORTABLE_FIELDS.contains(property)) {
+            throw new IllegalArgumentException("Unsupported sort field: " + property);
+        }
+        Sort.Direction direction = parts.length > 1 ? Sort.Direction.fromString(parts[1].trim()) : Sort.Direction.ASC;
+        Sort order = Sort.by(direction, property);
+        return property.equals("id") ? order : order.and(Sort.by(direction, "id"));
     }
 
     // Get a task by ID
-    public TaskResponseDto getTaskById(Long id, String email) {
-        User user = getUser(email);
-        Task task = findTaskByIdAndUser(id, user);
-        return convertToDTO(task);
+    public TaskResponseDto getTaskById(Long id, Long userId) {
+        return taskRepository.findDtoByIdAndUserId(id, userId)
+                .orElseThrow(() -> new TaskNotFoundException("Task not found"));
     }
 
-    // Update a task
-    public Task updateTask(Long id, Task task, String email) {
-        User user = getUser(email);
-        Task existingTask = findTaskByIdAndUser(id, user);
+    // Update a task. When the body carries a version it must match the stored one, otherwise the write is
+    // rejected instead of overwriting a newer state; concurrent writers racing past the check are caught by
+    // Hibernate's version check on flush.
+    @Transactional
+    public Task updateTask(Long id, Task task, Long userId) {
+        Task existingTask = findTaskByIdAndUser(id, userId);
+        if (task.getVersion() != null && !task.getVersion().equals(existingTask.getVersion())) {
+            throw new TaskVersionConflictException("Task was modified by another request (current version "
+                    + existingTask.getVersion() + ").");
+        }
 
         existingTask.setTaskTitle(task.getTaskTitle());
         existingTask.setTaskDescription(task.getTaskDescription());
@@ -75,103 +384,136 @@ public class TaskService {
         existingTask.setProgress(task.getProgress());
         existingTask.setCompleted(task.isCompleted());
         existingTask.setImportant(task.isImportant());
+        existingTask.setChangeSeq(nextChangeSeq(userId));
 
-        return taskRepository.save(existingTask);
+        Task savedTask;
+        try {
+            savedTask = taskRepository.saveAndFlush(existingTask);
+        } catch (OptimisticLockingFailureException e) {
+            throw new TaskVersionConflictException("Task was modified by another request.");
+        }
+        eventPublisher.publishEvent(TaskChangedEvent.updated(savedTask));
+        return savedTask;
     }
 
-    // Delete a task
-    public void deleteTask(Long id, String email) {
-        User user = getUser(email);
-        Task task = findTaskByIdAndUser(id, user);
+    // Delete a task, leaving a tombstone for delta-sync clients
+    @Transactional
+    public void deleteTask(Long id, Long userId) {
+        Task task = findTaskByIdAndUser(id, userId);
+        long changeSeq = nextChangeSeq(userId);
         taskRepository.delete(task);
+        taskTombstoneRepository.save(new TaskTombstone(userId, id, changeSeq, LocalDateTime.now(ZoneOffset.UTC)));
+        eventPublisher.publishEvent(TaskChangedEvent.deleted(userId, id));
     }
 
-    public List<TaskResponseDto> getTasksByCompletion(String email, boolean isCompleted) {
-        User user = getUser(email);
-        List<Task> tasks = taskRepository.findByUserAndIsCompleted(user, isCompleted);
-        return tasks.stream().map(this::convertToDTO).collect(Collectors.toList());
+    // Filtered views are derived from the cached snapshot instead of querying per filter value
+    public CompactTaskListDto getTasksByCompletion(UserDto owner, boolean isCompleted) {
+        return new CompactTaskListDto(owner, taskSnapshot(owner.getId()).stream()
+                .filter(task -> task.isCompleted() == isCompleted)
+                .collect(Collectors.toList()));
     }
 
-    public List<TaskResponseDto> getTasksByImportance(String email, boolean isImportant) {
-        User user = getUser(email);
-        List<Task> tasks = taskRepository.findByUserAndIsImportant(user, isImportant);
-        return tasks.stream().map(this::convertToDTO).collect(Collectors.toList());
+    public CompactTaskListDto getTasksByImportance(UserDto owner, boolean isImportant) {
+        return new CompactTaskListDto(owner, taskSnapshot(owner.getId()).stream()
+                .filter(task -> task.isImportant() == isImportant)
+                .collect(Collectors.toList()));
     }
 
-    // New Method: Update task's completion or importance status (partial update)
-    public Task updateTaskStatus(Long taskId, Map<String, Object> updates, String email) throws TaskNotFoundException {
-        User user = getUser(email);
-
+    // Partial update of isCompleted/isImportant as one conditional UPDATE that also bumps the version, so
+    // concurrent toggles never overwrite each other. An optional "version" makes the update conditional on it.
+    @Transactional
+    public Task updateTaskStatus(Long taskId, Map<String, Object> updates, Long userId) throws TaskNotFoundException {
         logger.info("Received updates: " + updates.toString());
 
-        // Fetch task by ID and user
-        Task task = taskRepository.findByIdAndUser(taskId, user)
-                .orElseThrow(() -> new TaskNotFoundException("Task not found"));
-
-        // Update task's completion status if present
-        if (updates.containsKey("isCompleted")) {
-            task.setCompleted((Boolean) updates.get("isCompleted"));
+        Boolean isCompleted = (Boolean) updates.get("isCompleted");
+        Boolean isImportant = (Boolean) updates.get("isImportant");
+        Long expectedVersion = updates.get("version") instanceof Number version ? version.longValue() : null;
+        if (isCompleted == null && isImportant == null) {
+            return findTaskByIdAndUser(taskId, userId);
         }
 
-        // Update task's importance status if present
-        if (updates.containsKey("isImportant")) {
-            task.setImportant((Boolean) updates.get("isImportant"));
+        long changeSeq = nextChangeSeq(userId);
+        int updated = taskRepository.updateStatus(taskId, userId, isCompleted, isImportant, expectedVersion, changeSeq);
+        if (updated == 0) {
+            if (expectedVersion != null && taskRepository.existsByIdAndUserId(taskId, userId)) {
+                throw new TaskVersionConflictException("Task was modified by another request.");
+            }
+            throw new TaskNotFoundException("Task not found");
         }
 
-        // Save and return updated task
-        return taskRepository.save(task);
+        // MySQL has no UPDATE ... RETURNING; read the new state (and version) back by primary key
+        Task savedTask = findTaskByIdAndUser(taskId, userId);
+        eventPublisher.publishEvent(TaskChangedEvent.updated(savedTask));
+        return savedTask;
     }
 
-    @Scheduled(cron = "0 0 11 * * *")  // Runs every day at 8 AM
-    public void sendDueSoonNotifications() {
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime next24Hours = now.plusHours(24);
-
-        List<Task> tasksDueSoon = taskRepository.findTasksByDueDateBetween(now, next24Hours);
-
-        for (Task task : tasksDueSoon) {
-            try {
-                User user = task.getUser();
-                String subject = "Reminder: Task due soon!";
-                String body = "Hello " + user.getUsername() + ",\n\n"
-                        + "This is a reminder that your task \"" + task.getTaskDescription() + "\" is due on "
-                        + task.getDueDate() + ". Please make sure to complete it on time.\n\n"
-                        + "Best regards,\nYour Todo App";
+    // Set isCompleted and/or isImportant on many of the user's tasks with a single UPDATE, selected either by
+    // ids or by filter. Ids that do not exist or belong to someone else are simply not counted.
+    @Transactional
+    public int updateTasksStatus(TaskBulkUpdateDto update, Long userId) {
+        if (update.getIsCompleted() == null && update.getIsImportant() == null) {
+            throw new IllegalArgumentException("Nothing to update: provide isCompleted and/or isImportant.");
+        }
+        boolean byIds = update.getIds() != null;
+        if (byIds == (update.getFilter() != null)) {
+            throw new IllegalArgumentException("Provide either ids or filter.");
+        }
 
-                emailService.sendEmail(user.getEmail(), subject, body);
-            } catch (MessagingException e) {
-                e.printStackTrace();  // Log email failures
+        int updated;
+        long changeSeq;
+        if (byIds) {
+            Set<Long> ids = new LinkedHashSet<>(update.getIds());
+            ids.remove(null);
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            if (ids.size() > maxBatchSize) {
+                throw new IllegalArgumentException("At most " + maxBatchSize + " ids may be updated at once.");
             }
+            changeSeq = nextChangeSeq(userId);
+            updated = taskRepository.updateStatusByIds(userId, ids, update.getIsCompleted(), update.getIsImportant(), changeSeq);
+        } else {
+            TaskFilterDto filter = update.getFilter();
+            changeSeq = nextChangeSeq(userId);
+            updated = taskRepository.updateStatusByFilter(userId, filter.getCompleted(), filter.getImportant(),
+                    filter.getCategory(), filter.getDueFrom(), filter.getDueTo(),
+                    update.getIsCompleted(), update.getIsImportant(), changeSeq);
         }
+        if (updated > 0) {
+            eventPublisher.publishEvent(TaskChangedEvent.bulkUpdated(userId));
+        }
+        return updated;
     }
 
-    private User getUser(String email) {
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-    }
-
-    private Task findTaskByIdAndUser(Long id, User user) {
-        return taskRepository.findByIdAndUser(id, user)
+    private Task findTaskByIdAndUser(Long id, Long userId) {
+        return taskRepository.findByIdAndUserId(id, userId)
                 .orElseThrow(() -> new TaskNotFoundException("Task not found"));
     }
 
-    public List<Task> searchTasksByTitle(String taskTitle, String email) {
-        return taskRepository.findByTaskTitleContainingAndUserEmail(taskTitle, email);
+    // Ranked, paginated substring search over titles and descriptions, served by TaskSearchIndex.
+    // Falls back to a LIKE query over the same fields (unranked) while the index is still being built at startup.
+    // The task version is read first, as for ETags, and the index is synced up to it before the search.
+    public List<Task> searchTasksByTitle(String taskTitle, Long userId, int page, Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        if (!taskSearchIndex.isReady()) {
+            String text = taskTitle == null ? "" : taskTitle.trim().toLowerCase(Locale.ROOT);
+            return taskRepository.findByUserIdAndTextLike(userId, "%" + escapeLike(text) + "%",
+                    PageRequest.of(Math.max(page, 0), pageSize));
+        }
+        long taskVersion = getTaskVersion(userId);
+        List<Long> rankedIds = taskSearchIndex.search(userId, taskVersion, taskTitle, Math.max(page, 0), pageSize);
+        if (rankedIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Task> tasksById = taskRepository.findByIdInAndUserId(rankedIds, userId).stream()
+                .collect(Collectors.toMap(Task::getId, Function.identity()));
+        return rankedIds.stream().map(tasksById::get).filter(Objects::nonNull).collect(Collectors.toList());
     }
 
+    // Makes LIKE wildcards in user input match literally; '!' is the escape character of findByUserIdAndTextLike
+    private static String escapeLike(String text) {
+        return text.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
 
-    // Helper method to convert Task to TaskDTO
-    private TaskResponseDto convertToDTO(Task task) {
-        User user = task.getUser(); // Get the User object
-        UserDto userDTO = new UserDto(
-                user.getId(),
-                user.getEmail(),
-                user.getName(),
-                user.getRole().getName() // Pass the converted roles to UserDto
-        );
 
-        return new TaskResponseDto(task.getId(), task.getTaskTitle(), task.getTaskDescription(),
-                task.getCategory(), task.getDueDate(), task.getProgress(), task.isCompleted(),
-                task.isImportant(), userDTO);
-    }
 }
@@ -24,18 +24,20 @@ public class UserService implements UserDetailsService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final AuthenticatedUserCache authenticatedUserCache;
     @Autowired
     private RoleRepository roleRepository;
 
     @Autowired
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, AuthenticatedUserCache authenticatedUserCache) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.authenticatedUserCache = authenticatedUserCache;
     }
 
     // Method to check if the email already exists
     public boolean emailExists(String email) {
-        return userRepository.findByEmail(email).isPresent();
+        return userRepository.findByNaturalEmail(email).isPresent();
     }
 
     @PostConstruct
@@ -67,6 +69,7 @@ public class UserService implements UserDetailsService {
 
         // Save the user entity in the database
         userRepository.save(user);
+        authenticatedUserCache.invalidate(user.getEmail());
     }
 
     public List<UserDto> getAllUsers() {
@@ -101,17 +104,23 @@ public class UserService implements UserDetailsService {
 
         // Save the admin user
         userRepository.save(adminUser);
+        authenticatedUserCache.invalidate(adminUser.getEmail());
     }
 
 
     // Method to load user by email for authentication
     @Override
     public User loadUserByUsername(String email) throws UsernameNotFoundException {
-        // Find user by email (case-insensitive)
-        Optional<User> userOptional = userRepository.findByEmailIgnoreCase(email);
+        // Emails are normally typed as registered, so try the cached exact match before the case-insensitive query
+        Optional<User> userOptional = userRepository.findByNaturalEmail(email).or(() -> userRepository.findByEmailIgnoreCase(email));
         return userOptional.orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
     }
 
+    // Same as loadUserByUsername, but served from the bounded principal cache; used for every authenticated request
+    public User loadAuthenticatedUser(String email) throws UsernameNotFoundException {
+        return authenticatedUserCache.get(email, this::loadUserByUsername);
+    }
+
 
 //    @PostConstruct
 //    public void initRoles() {
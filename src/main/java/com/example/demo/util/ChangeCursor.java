@@ -0,0 +1,45 @@
+package com.example.demo.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Position in a user's change feed, exchanged with clients as an opaque url-safe string.
+// issuedAt lets the server recognise cursors older than the tombstone retention window.
+@Getter
+@AllArgsConstructor
+public class ChangeCursor {
+
+    // Before the first change of any user; a full sync starts here
+    public static ChangeCursor start(long now) {
+        return new ChangeCursor(-1, 0, now);
+    }
+
+    private final long changeSeq;
+    private final long taskId;
+    private final long issuedAt; // epoch millis
+
+    public boolean isStart() {
+        return changeSeq < 0;
+    }
+
+    public String encode() {
+        String raw = changeSeq + "|" + taskId + "|" + issuedAt;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ChangeCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cursor.");
+            }
+            return new ChangeCursor(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) { // malformed base64 or numbers
+            throw new IllegalArgumentException("Invalid cursor.", e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.demo.util;
+
+import com.example.demo.dto.UserDto;
+import com.example.demo.entity.ERole;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.security.Principal;
+import java.util.Date;
+
+// Identity claims of a JWT whose signature and expiry have already been verified by JwtRequestFilter, with the
+// display name and role of the user it resolved to (at most app.security.principal-cache.ttl-seconds old)
+// instead of the ones in the token.
+// Stored as the principal of the SecurityContext so controllers and services never re-parse the token.
+@Getter
+@AllArgsConstructor
+public class JwtPrincipal implements Principal {
+    private final Long userId;
+    private final String email;
+    private final String username;
+    private final ERole role;
+    private final Date expiration;
+
+    // The owner shown in task responses
+    public UserDto toUserDto() {
+        return new UserDto(userId, email, username, role);
+    }
+
+    public boolean isExpired() {
+        return expiration != null && expiration.before(new Date());
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    @Override
+    public String toString() {
+        return email;
+    }
+}
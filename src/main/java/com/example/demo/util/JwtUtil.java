@@ -61,14 +61,37 @@ public class JwtUtil {
         }
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    // Verifies the signature and expiry once and returns every claim the application needs. The display name
+    // is not among them: JwtRequestFilter takes it from the resolved user.
+    public JwtPrincipal parseToken(String token) {
+        final Claims claims = extractAllClaims(token);
+        return new JwtPrincipal(
+                claims.get("uid", Long.class),
+                claims.getSubject(),
+                null,
+                parseRole(claims.get("role", String.class)),
+                claims.getExpiration()
+        );
+    }
+
+    // A role this version does not know makes the token invalid rather than failing the request
+    private static ERole parseRole(String role) {
+        if (role == null) {
+            return null;
+        }
+        try {
+            return ERole.valueOf(role);
+        } catch (IllegalArgumentException e) {
+            throw new JwtException("Unknown role in JWT: " + role, e);
+        }
     }
 
-    public String generateToken(String name, String email, ERole role) {
+    // The "name" claim keeps carrying the login name (the email), as it did before the uid claim was added
+    public String generateToken(Long userId, String email, ERole role) {
         try {
             Map<String, Object> claims = new HashMap<>();
-            claims.put("name", name);
+            claims.put("uid", userId);
+            claims.put("name", email);
             claims.put("role", role);
             return createToken(claims, email);
         } catch (Exception e) {
@@ -90,8 +113,9 @@ public class JwtUtil {
 
 
     public Boolean validateToken(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        Boolean tokenValid = extractedUsername.equals(username) && !isTokenExpired(token);
+        final JwtPrincipal principal = parseToken(token);
+        final String extractedUsername = principal.getEmail();
+        Boolean tokenValid = extractedUsername.equals(username) && !principal.isExpired();
         logger.info("Token Validation - Extracted Username: {}", extractedUsername);
         logger.info("Token Validity: {}", tokenValid);
         return tokenValid;
@@ -0,0 +1,61 @@
+package com.example.demo.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Keyset position inside a user's task list, exchanged with clients as an opaque url-safe string.
+// For the due-date ordering, tasks without a due date come last and are walked by id only.
+@Getter
+@AllArgsConstructor
+public class TaskCursor {
+
+    public enum Sort {
+        ID, DUE_DATE;
+
+        public static Sort from(String value) {
+            if (value == null || value.isBlank() || value.equalsIgnoreCase("id")) {
+                return ID;
+            }
+            if (value.equalsIgnoreCase("dueDate")) {
+                return DUE_DATE;
+            }
+            throw new IllegalArgumentException("Unsupported sort: " + value);
+        }
+    }
+
+    private final Sort sort;
+    private final LocalDate dueDate; // null once the due-date ordering has reached undated tasks
+    private final long id;
+
+    public boolean isUndated() {
+        return sort == Sort.DUE_DATE && dueDate == null;
+    }
+
+    public String encode() {
+        String raw = sort.name() + "|" + (dueDate != null ? dueDate : "") + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TaskCursor decode(String cursor, Sort expectedSort) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cursor.");
+            }
+            Sort sort = Sort.valueOf(parts[0]);
+            if (sort != expectedSort) {
+                throw new IllegalArgumentException("Cursor does not match the requested sort.");
+            }
+            LocalDate dueDate = parts[1].isEmpty() ? null : LocalDate.parse(parts[1]);
+            return new TaskCursor(sort, dueDate, Long.parseLong(parts[2]));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor.", e);
+        }
+    }
+}
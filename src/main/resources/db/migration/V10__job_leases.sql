@@ -0,0 +1,18 @@
+-- Cluster-safe scheduled jobs. A job (or a partition of one) runs only on the node holding its row in
+-- job_leases until expires_at. Every acquisition increments fencing_token, and the holder's writes check
+-- the token, so a node that lost its lease (e.g. paused past the expiry) cannot commit once another node
+-- has taken over.
+CREATE TABLE job_leases (
+    job_name      VARCHAR(100) NOT NULL,
+    owner         VARCHAR(255) NOT NULL,
+    fencing_token BIGINT       NOT NULL,
+    acquired_at   DATETIME(6)  NOT NULL,
+    expires_at    DATETIME(6)  NOT NULL,
+    PRIMARY KEY (job_name)
+);
+
+-- Due-soon reminder runs are split into partitions by MOD(user_id, app.reminders.partitions); each partition
+-- has its own lease and its own checkpoint row, so several nodes can work through one day's run in parallel
+ALTER TABLE reminder_runs ADD COLUMN part INT NOT NULL DEFAULT 0;
+ALTER TABLE reminder_runs DROP PRIMARY KEY;
+ALTER TABLE reminder_runs ADD PRIMARY KEY (run_date, part);
@@ -0,0 +1,4 @@
+-- Near-real-time due reminders (DueTimeReminderScheduler): the due date a task was last reminded of. Sending
+-- a reminder first claims it with a conditional UPDATE of this column, so it goes out once even when several
+-- nodes have it scheduled, and a task moved to another due date is reminded again.
+ALTER TABLE tasks ADD COLUMN reminded_due_date DATE NULL;
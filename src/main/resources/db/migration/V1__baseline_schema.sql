@@ -0,0 +1,33 @@
+-- Schema as previously created by hibernate.ddl-auto=update.
+-- Existing databases are baselined at version 1 (spring.flyway.baseline-on-migrate) and skip this script.
+CREATE TABLE IF NOT EXISTS role (
+    id   BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(20),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_role_name UNIQUE (name)
+);
+
+CREATE TABLE IF NOT EXISTS users (
+    user_id  BIGINT       NOT NULL AUTO_INCREMENT,
+    name     VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    email    VARCHAR(255) NOT NULL,
+    role_id  BIGINT       NOT NULL,
+    PRIMARY KEY (user_id),
+    CONSTRAINT uk_users_email UNIQUE (email),
+    CONSTRAINT fk_users_role FOREIGN KEY (role_id) REFERENCES role (id)
+);
+
+CREATE TABLE IF NOT EXISTS tasks (
+    id               BIGINT       NOT NULL AUTO_INCREMENT,
+    task_title       VARCHAR(255) NOT NULL,
+    task_description VARCHAR(255) NOT NULL,
+    category         VARCHAR(255),
+    due_date         DATE,
+    progress         INT          NOT NULL,
+    is_completed     BIT          NOT NULL,
+    is_important     BIT          NOT NULL,
+    user_id          BIGINT       NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_tasks_user FOREIGN KEY (user_id) REFERENCES users (user_id)
+);
@@ -0,0 +1,7 @@
+-- Composite indexes for the TaskRepository access paths. InnoDB secondary indexes carry the primary key,
+-- so (user_id, x) also serves "ORDER BY id" within a user; idx_tasks_user_due_date lists id explicitly
+-- because the due-date keyset pages seek on (due_date, id).
+CREATE INDEX idx_tasks_user_completed ON tasks (user_id, is_completed);
+CREATE INDEX idx_tasks_user_important ON tasks (user_id, is_important);
+CREATE INDEX idx_tasks_user_due_date ON tasks (user_id, due_date, id);
+CREATE INDEX idx_tasks_due_date ON tasks (due_date);
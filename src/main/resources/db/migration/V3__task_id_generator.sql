@@ -0,0 +1,11 @@
+-- Task ids are allocated from this table in blocks of 50 (pooled @TableGenerator on Task.id) instead of
+-- AUTO_INCREMENT, so Hibernate knows ids before INSERT and can send inserts as JDBC batches.
+-- The first block starts above every id AUTO_INCREMENT has handed out so far.
+CREATE TABLE id_generator (
+    gen_name  VARCHAR(255) NOT NULL,
+    gen_value BIGINT,
+    PRIMARY KEY (gen_name)
+);
+
+INSERT INTO id_generator (gen_name, gen_value)
+SELECT 'task', COALESCE(MAX(id), 0) + 51 FROM tasks;
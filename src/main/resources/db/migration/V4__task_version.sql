@@ -0,0 +1,2 @@
+-- Optimistic locking counter for Task (@Version); every write increments it
+ALTER TABLE tasks ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,3 @@
+-- Per-user counter bumped in the same transaction as every change to the user's tasks.
+-- TaskController derives ETags from it, so an unchanged list is answered with 304 after one primary-key read.
+ALTER TABLE users ADD COLUMN task_version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,17 @@
+-- Delta sync (/api/tasks/changes). Every write stamps the rows it touches with the user's new
+-- users.task_version, so (change_seq, id) orders a user's changes; deletions leave a tombstone carrying the
+-- same sequence. Tombstones are pruned after app.tasks.changes.tombstone-retention-days.
+ALTER TABLE tasks ADD COLUMN change_seq BIGINT NOT NULL DEFAULT 0;
+CREATE INDEX idx_tasks_user_change_seq ON tasks (user_id, change_seq, id);
+
+CREATE TABLE task_tombstones (
+    id         BIGINT      NOT NULL AUTO_INCREMENT,
+    user_id    BIGINT      NOT NULL,
+    task_id    BIGINT      NOT NULL,
+    change_seq BIGINT      NOT NULL,
+    deleted_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_task_tombstones_user FOREIGN KEY (user_id) REFERENCES users (user_id)
+);
+CREATE INDEX idx_task_tombstones_user_change_seq ON task_tombstones (user_id, change_seq, task_id);
+CREATE INDEX idx_task_tombstones_deleted_at ON task_tombstones (deleted_at);
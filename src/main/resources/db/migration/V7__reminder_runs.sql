@@ -0,0 +1,13 @@
+-- Checkpoint of the daily due-soon reminder run. The run advances last_due_date/last_task_id (its keyset
+-- position over tasks ordered by due_date, id) after every fully sent page, so a run interrupted by a crash
+-- or restart resumes after the last completed page instead of starting over.
+CREATE TABLE reminder_runs (
+    run_date      DATE        NOT NULL,
+    last_due_date DATE        NULL,
+    last_task_id  BIGINT      NOT NULL DEFAULT 0,
+    sent          INT         NOT NULL DEFAULT 0,
+    failed        INT         NOT NULL DEFAULT 0,
+    started_at    DATETIME(6) NOT NULL,
+    completed_at  DATETIME(6) NULL,
+    PRIMARY KEY (run_date)
+);
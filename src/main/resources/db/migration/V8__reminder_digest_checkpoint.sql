@@ -0,0 +1,2 @@
+-- Digest reminders go out one email per owner in user id order; last_user_id is the checkpoint of that mode
+ALTER TABLE reminder_runs ADD COLUMN last_user_id BIGINT NOT NULL DEFAULT 0;
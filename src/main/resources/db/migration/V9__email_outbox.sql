@@ -0,0 +1,18 @@
+-- Transactional email outbox. EmailService inserts a row in the same transaction as the change that
+-- triggers the email; EmailOutboxDispatcher claims due rows (status PENDING, next_attempt_at reached),
+-- pushing next_attempt_at out by a lease while it sends them, then marks them SENT or reschedules them
+-- with exponential backoff. Rows that exhaust their attempts are kept as FAILED; SENT rows are pruned.
+CREATE TABLE email_outbox (
+    id              BIGINT        NOT NULL AUTO_INCREMENT,
+    recipient       VARCHAR(255)  NOT NULL,
+    subject         VARCHAR(255)  NOT NULL,
+    body            MEDIUMTEXT    NOT NULL,
+    status          VARCHAR(16)   NOT NULL,
+    attempts        INT           NOT NULL DEFAULT 0,
+    next_attempt_at DATETIME(6)   NOT NULL,
+    created_at      DATETIME(6)   NOT NULL,
+    sent_at         DATETIME(6)   NULL,
+    last_error      VARCHAR(1000) NULL,
+    PRIMARY KEY (id)
+);
+CREATE INDEX idx_email_outbox_status_next_attempt ON email_outbox (status, next_attempt_at);
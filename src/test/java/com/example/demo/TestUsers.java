@@ -0,0 +1,25 @@
+package com.example.demo;
+
+import com.example.demo.entity.ERole;
+import com.example.demo.entity.User;
+import com.example.demo.repository.RoleRepository;
+import com.example.demo.repository.UserRepository;
+
+import java.util.UUID;
+
+// Saved users for tests, with the password "secret" and the USER role. Each gets a unique email, so tests sharing
+// the embedded database never see each other's users.
+public final class TestUsers {
+
+    private TestUsers() {
+    }
+
+    public static User create(UserRepository userRepository, RoleRepository roleRepository, String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setPassword("secret");
+        user.setRole(roleRepository.findByName(ERole.USER).orElseThrow());
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.demo;
+
+import com.example.demo.entity.Task;
+import com.example.demo.entity.User;
+import com.example.demo.repository.RoleRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.TaskService;
+import com.example.demo.util.JwtUtil;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.withinPercentage;
+
+// Throughput of GET /api/tasks/{id} with requests on Tomcat's platform thread pool and on virtual threads.
+// Every JDBC statement waits STATEMENT_LATENCY before executing, standing in for the round trip to MySQL, so a
+// request spends nearly all its time holding a pooled connection. Tomcat is capped at TOMCAT_THREADS threads and
+// CLIENTS clients keep more requests in flight than either pool can take:
+// - with a Hikari pool smaller than Tomcat's, both modes run at the pool's limit of
+//   pool size / (statements per request x latency);
+// - with a larger pool, platform threads stop at Tomcat's thread limit while virtual threads go on up to the
+//   pool's limit, which is then the only one left.
+// Not part of `mvn test`; run it with mvn -Pbenchmark test.
+@Tag("benchmark")
+class VirtualThreadsBenchmarkTest {
+
+    private static final Duration STATEMENT_LATENCY = Duration.ofMillis(100);
+    private static final int TOMCAT_THREADS = 20;
+    private static final int SMALL_POOL = 10;
+    private static final int LARGE_POOL = 40;
+    private static final int CLIENTS = 100;
+    private static final Duration WARMUP = Duration.ofSeconds(3);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(10);
+
+    private record Result(boolean virtual, int poolSize, long requests, double statementsPerRequest) {
+
+        double perSecond() {
+            return requests / (double) MEASUREMENT.toSeconds();
+        }
+
+        // Requests per second when every thread (or connection) is busy all the time
+        double limit(int threads) {
+            return threads / (statementsPerRequest * STATEMENT_LATENCY.toMillis() / 1000.0);
+        }
+    }
+
+    @Test
+    void virtualThreadsAreLimitedByTheHikariPoolInsteadOfTomcatThreads() throws Exception {
+        Result platformSmall = measure(false, SMALL_POOL);
+        Result virtualSmall = measure(true, SMALL_POOL);
+        Result platformLarge = measure(false, LARGE_POOL);
+        Result virtualLarge = measure(true, LARGE_POOL);
+
+        System.out.printf("%n%-9s %5s %12s %12s %14s %11s%n",
+                "threads", "pool", "requests/s", "pool limit", "thread limit", "stmts/req");
+        for (Result result : List.of(platformSmall, virtualSmall, platformLarge, virtualLarge)) {
+            System.out.printf("%-9s %5d %12.1f %12.1f %14s %11.2f%n",
+                    result.virtual() ? "virtual" : "platform", result.poolSize(), result.perSecond(),
+                    result.limit(result.poolSize()),
+                    result.virtual() ? "-" : String.format("%.1f", result.limit(TOMCAT_THREADS)),
+                    result.statementsPerRequest());
+        }
+
+        // Small pool: the pool is the bottleneck either way
+        assertThat(platformSmall.perSecond()).isLessThanOrEqualTo(platformSmall.limit(SMALL_POOL) * 1.1);
+        assertThat(virtualSmall.perSecond()).isLessThanOrEqualTo(virtualSmall.limit(SMALL_POOL) * 1.1)
+                .isCloseTo(platformSmall.perSecond(), withinPercentage(25));
+        // Large pool: platform threads are held back by Tomcat, virtual threads only by the pool
+        assertThat(platformLarge.perSecond()).isLessThanOrEqualTo(platformLarge.limit(TOMCAT_THREADS) * 1.1);
+        assertThat(virtualLarge.perSecond()).isLessThanOrEqualTo(virtualLarge.limit(LARGE_POOL) * 1.1)
+                .isGreaterThan(platformLarge.perSecond() * 1.5);
+    }
+
+    private static Result measure(boolean virtual, int poolSize) throws Exception {
+        StatementLatency latency = new StatementLatency();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DemoApplication.class)
+                .properties("server.port=0",
+                        "spring.threads.virtual.enabled=" + virtual,
+                        "server.tomcat.threads.max=" + TOMCAT_THREADS,
+                        "spring.datasource.hikari.maximum-pool-size=" + poolSize)
+                .initializers(ctx -> ctx.getBeanFactory().addBeanPostProcessor(latency))
+                .run()) {
+            User user = TestUsers.create(context.getBean(UserRepository.class), context.getBean(RoleRepository.class),
+                    "benchmark");
+            long taskId = createTask(context, user);
+            String token = context.getBean(JwtUtil.class)
+                    .generateToken(user.getId(), user.getEmail(), user.getRole().getName());
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + "/api/tasks/" + taskId);
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .header("Authorization", "Bearer " + token)
+                    .GET()
+                    .build();
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+            latency.enabled = true;
+            load(client, request, WARMUP);
+            // Statements per request, counted while nothing else is in flight
+            latency.statements.set(0);
+            for (int i = 0; i < 10; i++) {
+                client.send(request, HttpResponse.BodyHandlers.discarding());
+            }
+            double statementsPerRequest = latency.statements.get() / 10.0;
+            long requests = load(client, request, MEASUREMENT);
+            return new Result(virtual, poolSize, requests, statementsPerRequest);
+        }
+    }
+
+    private static long createTask(ConfigurableApplicationContext context, User user) {
+        Task task = new Task();
+        task.setTaskTitle("benchmark");
+        task.setTaskDescription("read over and over");
+        return context.getBean(TaskService.class).createTask(task, user.getId()).getId();
+    }
+
+    // CLIENTS clients send the request back to back for the given time; returns the responses received in time
+    private static long load(HttpClient client, HttpRequest request, Duration duration) throws Exception {
+        AtomicLong completed = new AtomicLong();
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> runs = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                runs.add(clients.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        assertThat(response.statusCode()).isEqualTo(200);
+                        if (System.nanoTime() < deadline) {
+                            completed.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> run : runs) {
+                run.get();
+            }
+        }
+        return completed.get();
+    }
+
+    // Wraps the application's DataSource so that, once enabled, every statement waits STATEMENT_LATENCY before
+    // executing while its connection stays checked out of the pool
+    private static final class StatementLatency implements BeanPostProcessor {
+
+        private final AtomicLong statements = new AtomicLong();
+        private volatile boolean enabled;
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource dataSource) {
+                return new DelegatingDataSource(dataSource) {
+                    @Override
+                    public Connection getConnection() throws SQLException {
+                        return (Connection) delayed(super.getConnection(), Connection.class);
+                    }
+                };
+            }
+            return bean;
+        }
+
+        private Object delayed(Object target, Class<?> type) {
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                if (enabled && target instanceof Statement && method.getName().startsWith("execute")) {
+                    statements.incrementAndGet();
+                    Thread.sleep(STATEMENT_LATENCY.toMillis());
+                }
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                return target instanceof Connection && result instanceof Statement
+                        ? delayed(result, method.getReturnType())
+                        : result;
+            });
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package com.example.demo.controller;
+
+import com.example.demo.TestUsers;
+import com.example.demo.entity.Task;
+import com.example.demo.entity.User;
+import com.example.demo.repository.RoleRepository;
+import com.example.demo.repository.TaskRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.TaskService;
+import com.example.demo.util.ChangeCursor;
+import com.example.demo.util.JwtUtil;
+import com.jayway.jsonpath.JsonPath;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The task endpoints through the HTTP layer, as a signed-in user with a bearer token
+@SpringBootTest
+@AutoConfigureMockMvc
+class TaskControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private TaskService taskService;
+    @Autowired
+    private JwtUtil jwtUtil;
+    @Autowired
+    private TaskRepository taskRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+
+    private User user;
+    private String bearer;
+
+    @BeforeEach
+    void createUser() {
+        user = TestUsers.create(userRepository, roleRepository, "controller");
+        bearer = "Bearer " + jwtUtil.generateToken(user.getId(), user.getEmail(), user.getRole().getName());
+    }
+
+    private Long createTask(String title) {
+        return createTask(title, task -> {
+        });
+    }
+
+    private Long createTask(String title, Consumer<Task> setup) {
+        Task task = new Task();
+        task.setTaskTitle(title);
+        task.setTaskDescription("created for " + title);
+        setup.accept(task);
+        return taskService.createTask(task, user.getId()).getId();
+    }
+
+    @Test
+    void matchingETagIsAnswered304UntilATaskChanges() throws Exception {
+        Long taskId = createTask("tagged");
+        String etag = mockMvc.perform(get("/api/tasks/all-tasks").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/tasks/all-tasks").header("Authorization", bearer).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mockMvc.perform(patch("/api/tasks/" + taskId).header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"isCompleted\": true}"))
+                .andExpect(status().isOk());
+
+        String changed = mockMvc.perform(get("/api/tasks/all-tasks").header("Authorization", bearer).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].isCompleted").value(true))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(changed).isNotEqualTo(etag);
+    }
+
+    @Test
+    void keysetPagesFollowTheDueDateOrderWhileTasksAreAdded() throws Exception {
+        Long undated = createTask("undated");
+        Long later = createTask("later", task -> task.setDueDate(LocalDate.of(2030, 3, 1)));
+        Long sooner = createTask("sooner", task -> task.setDueDate(LocalDate.of(2030, 1, 1)));
+        Long sameDay = createTask("same day", task -> task.setDueDate(LocalDate.of(2030, 1, 1)));
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletRequestBuilder request = get("/api/tasks/all-tasks").param("sort", "dueDate").param("size", "2")
+                    .header("Authorization", bearer);
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            String body = mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+            List<Number> ids = JsonPath.read(body, "$.data[*].taskId");
+            ids.forEach(id -> seen.add(id.longValue()));
+            List<String> next = JsonPath.read(body, "$..nextCursor");
+            cursor = next.isEmpty() ? null : next.get(0);
+            if (seen.size() == 2) {
+                // Sorts before the cursor, so it shifts nothing on the following pages
+                createTask("earlier", task -> task.setDueDate(LocalDate.of(2029, 1, 1)));
+            }
+        } while (cursor != null);
+
+        // Same-day tasks by id, undated tasks last, nothing repeated or skipped
+        assertThat(seen).containsExactly(sooner, sameDay, later, undated);
+    }
+
+    @Test
+    void queryCombinesFiltersAndCountsFacetsOverTheNonStatusFilters() throws Exception {
+        createTask("done", task -> {
+            task.setCategory("work");
+            task.setProgress(100);
+            task.setCompleted(true);
+            task.setImportant(true);
+        });
+        Long open = createTask("open", task -> {
+            task.setCategory("work");
+            task.setProgress(40);
+            task.setImportant(true);
+        });
+        Long idle = createTask("idle", task -> {
+            task.setCategory("work");
+            task.setProgress(10);
+        });
+        createTask("home", task -> {
+            task.setCategory("home");
+            task.setProgress(90);
+        });
+
+        // total, completed and important count the work tasks; matching also applies completed=false
+        mockMvc.perform(get("/api/tasks/query").param("category", "work").param("completed", "false")
+                        .param("sort", "progress,desc").param("size", "1").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.tasks.length()").value(1))
+                .andExpect(jsonPath("$.data.tasks[0].taskId").value(open))
+                .andExpect(jsonPath("$.data.hasNext").value(true))
+                .andExpect(jsonPath("$.data.counts.total").value(3))
+                .andExpect(jsonPath("$.data.counts.completed").value(1))
+                .andExpect(jsonPath("$.data.counts.important").value(2))
+                .andExpect(jsonPath("$.data.counts.matching").value(2));
+
+        mockMvc.perform(get("/api/tasks/query").param("category", "work").param("completed", "false")
+                        .param("sort", "progress,desc").param("size", "1").param("page", "1").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.tasks.length()").value(1))
+                .andExpect(jsonPath("$.data.tasks[0].taskId").value(idle))
+                .andExpect(jsonPath("$.data.hasNext").value(false));
+
+        mockMvc.perform(get("/api/tasks/query").param("important", "true").param("minProgress", "50").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.tasks[*].taskTitle").value(Matchers.contains("done")))
+                .andExpect(jsonPath("$.data.counts.total").value(2))
+                .andExpect(jsonPath("$.data.counts.matching").value(1));
+    }
+
+    @Test
+    void bulkPatchUpdatesTheCallersTasksByIdsOrFilterAndInvalidatesTheirList() throws Exception {
+        Long first = createTask("first", task -> task.setCategory("home"));
+        Long second = createTask("second", task -> task.setCategory("home"));
+        Long third = createTask("third", task -> task.setCategory("work"));
+        Task othersTask = new Task();
+        othersTask.setTaskTitle("not mine");
+        othersTask.setTaskDescription("owned by another user");
+        Long foreign = taskService.createTask(othersTask, TestUsers.create(userRepository, roleRepository, "other").getId()).getId();
+
+        // Loads the list into the snapshot cache
+        String etag = mockMvc.perform(get("/api/tasks/all-tasks").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[?(@.isCompleted == true)]").isEmpty())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        long version = taskService.getTaskVersion(user.getId());
+
+        // Another user's id is ignored
+        mockMvc.perform(patch("/api/tasks").header("Authorization", bearer).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": [" + first + ", " + third + ", " + foreign + "], \"isCompleted\": true}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.updated").value(2));
+        assertThat(taskService.getTaskVersion(user.getId())).isEqualTo(version + 1);
+
+        mockMvc.perform(get("/api/tasks/all-tasks").header("Authorization", bearer).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[?(@.isCompleted == true)].taskId").value(Matchers.containsInAnyOrder(first.intValue(), third.intValue())));
+
+        mockMvc.perform(patch("/api/tasks").header("Authorization", bearer).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"filter\": {\"category\": \"home\", \"completed\": false}, \"isImportant\": true}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.updated").value(1));
+        assertThat(taskService.getTaskVersion(user.getId())).isEqualTo(version + 2);
+
+        mockMvc.perform(get("/api/tasks/all-tasks").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[?(@.isImportant == true)].taskId").value(Matchers.contains(second.intValue())));
+        assertThat(taskRepository.findById(foreign).orElseThrow().isCompleted()).isFalse();
+    }
+
+    @Test
+    void queryPageBeyondTheOffsetLimitIsABadRequest() throws Exception {
+        mockMvc.perform(get("/api/tasks/query").param("page", String.valueOf(Integer.MAX_VALUE)).header("Authorization", bearer))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.statusCode").value(400));
+    }
+
+    @Test
+    void summaryCountsTheTasksAndIsConditional() throws Exception {
+        LocalDate today = LocalDate.now();
+        createTask("done late", task -> {
+            task.setCategory("work");
+            task.setProgress(100);
+            task.setCompleted(true);
+            task.setDueDate(today.minusDays(1));
+        });
+        createTask("overdue", task -> {
+            task.setCategory("work");
+            task.setProgress(50);
+            task.setImportant(true);
+            task.setDueDate(today.minusDays(1));
+        });
+        createTask("uncategorized", task -> task.setDueDate(today.plusDays(1)));
+
+        String etag = mockMvc.perform(get("/api/tasks/summary").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.total").value(3))
+                .andExpect(jsonPath("$.data.completed").value(1))
+                .andExpect(jsonPath("$.data.important").value(1))
+                .andExpect(jsonPath("$.data.overdue").value(1))
+                .andExpect(jsonPath("$.data.averageProgress").value(50.0))
+                .andExpect(jsonPath("$.data.categories.length()").value(2))
+                .andExpect(jsonPath("$.data.categories[?(@.category == 'work')].total").value(Matchers.contains(2)))
+                .andExpect(jsonPath("$.data.categories[?(@.category == 'work')].averageProgress").value(Matchers.contains(75.0)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/tasks/summary").header("Authorization", bearer).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        createTask("added");
+
+        mockMvc.perform(get("/api/tasks/summary").header("Authorization", bearer).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.total").value(4))
+                .andExpect(header().string(HttpHeaders.ETAG, Matchers.not(etag)));
+    }
+
+    @Test
+    void changeFeedPagesThroughWritesAndDeletions() throws Exception {
+        Long first = createTask("first");
+        Long second = createTask("second");
+
+        MvcResult page = mockMvc.perform(get("/api/tasks/changes").param("size", "1").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.changed[0].taskId").value(first))
+                .andExpect(jsonPath("$.data.hasMore").value(true))
+                .andReturn();
+        page = mockMvc.perform(get("/api/tasks/changes").param("since", cursor(page)).header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.changed.length()").value(1))
+                .andExpect(jsonPath("$.data.changed[0].taskId").value(second))
+                .andExpect(jsonPath("$.data.hasMore").value(false))
+                .andReturn();
+
+        mockMvc.perform(delete("/api/tasks/" + first).header("Authorization", bearer)).andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/tasks/changes").param("since", cursor(page)).header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.changed").isEmpty())
+                .andExpect(jsonPath("$.data.deleted[0]").value(first));
+    }
+
+    @Test
+    void cursorOlderThanTheTombstoneRetentionIsGone() throws Exception {
+        // Deletions after this cursor may have been pruned, so the client has to sync from scratch
+        long issuedAt = System.currentTimeMillis() - Duration.ofDays(31).toMillis();
+        String expired = new ChangeCursor(0, 0, issuedAt).encode();
+
+        mockMvc.perform(get("/api/tasks/changes").param("since", expired).header("Authorization", bearer))
+                .andExpect(status().isGone())
+                .andExpect(jsonPath("$.statusCode").value(410));
+    }
+
+    @Test
+    void streamDeliversCommittedChanges() throws Exception {
+        MvcResult stream = mockMvc.perform(get("/api/tasks/stream").header("Authorization", bearer))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        awaitContent(stream, "event:ready");
+
+        Long taskId = createTask("streamed");
+
+        String events = awaitContent(stream, "event:created");
+        assertThat(events).contains("\"taskId\":" + taskId).contains("\"taskTitle\":\"streamed\"");
+    }
+
+    @Test
+    void exportStreamsEveryTaskAsNdjsonOrCsv() throws Exception {
+        createTask("exported one");
+        createTask("exported two");
+
+        String ndjson = mockMvc.perform(get("/api/tasks/export").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/x-ndjson;charset=UTF-8"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"tasks.ndjson\""))
+                .andReturn().getResponse().getContentAsString();
+        assertThat(ndjson.lines().toList()).hasSize(2)
+                .allSatisfy(line -> assertThat((String) JsonPath.read(line, "$.taskTitle")).startsWith("exported"));
+
+        String csv = mockMvc.perform(get("/api/tasks/export").param("format", "csv").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "text/csv;charset=UTF-8"))
+                .andReturn().getResponse().getContentAsString();
+        assertThat(csv.lines().toList()).hasSize(3).first().asString().startsWith("taskId,taskTitle");
+    }
+
+    private static String cursor(MvcResult result) throws Exception {
+        return JsonPath.read(result.getResponse().getContentAsString(), "$.data.cursor");
+    }
+
+    // Events are written by the stream's sender threads; waits until the body so far contains the text
+    static String awaitContent(MvcResult stream, String text) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (System.nanoTime() < deadline) {
+            String body = stream.getResponse().getContentAsString();
+            if (body.contains(text)) {
+                return body;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("No \"" + text + "\" in the stream: " + stream.getResponse().getContentAsString());
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.demo.controller;
+
+import com.example.demo.TestUsers;
+import com.example.demo.entity.Task;
+import com.example.demo.entity.User;
+import com.example.demo.repository.RoleRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.TaskService;
+import com.example.demo.util.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+// A stream connection that falls a full buffer behind is told to resync instead of being buffered without limit
+@SpringBootTest(properties = {"app.tasks.stream.buffer-size=4", "app.tasks.stream.sender-threads=1"})
+@AutoConfigureMockMvc
+class TaskStreamOverflowTest {
+
+    private static final int TASKS = 200;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private TaskService taskService;
+    @Autowired
+    private JwtUtil jwtUtil;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Test
+    void subscriberBehindByAFullBufferGetsResyncAndIsClosed() throws Exception {
+        User user = TestUsers.create(userRepository, roleRepository, "overflow");
+        String token = jwtUtil.generateToken(user.getId(), user.getEmail(), user.getRole().getName());
+        MvcResult stream = mockMvc.perform(get("/api/tasks/stream").header("Authorization", "Bearer " + token))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        TaskControllerTest.awaitContent(stream, "event:ready");
+
+        // One committed batch queues an event per task at once, far more than the buffer holds
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            Task task = new Task();
+            task.setTaskTitle("flood " + i);
+            task.setTaskDescription("one of many");
+            tasks.add(task);
+        }
+        taskService.createTasks(tasks, user.getId());
+
+        String events = TaskControllerTest.awaitContent(stream, "event:resync");
+        assertThat(events.split("event:created", -1).length - 1).isLessThan(TASKS);
+        assertThat(events).doesNotContain("flood " + (TASKS - 1) + "\"");
+    }
+}
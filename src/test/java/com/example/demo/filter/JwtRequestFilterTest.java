@@ -0,0 +1,103 @@
+package com.example.demo.filter;
+
+import com.example.demo.TestUsers;
+import com.example.demo.entity.ERole;
+import com.example.demo.entity.User;
+import com.example.demo.repository.RoleRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.util.JwtUtil;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Date;
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Current tokens, tokens issued before the uid claim (whose "name" is the email) and tokens the filter cannot
+// make sense of; the owner's display name and role always come from the stored user, never from the token
+@SpringBootTest
+@AutoConfigureMockMvc
+class JwtRequestFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtUtil jwtUtil;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+
+    private User user;
+
+    @BeforeEach
+    void createUser() {
+        user = TestUsers.create(userRepository, roleRepository, "Display Name");
+    }
+
+    @Test
+    void currentTokenAuthenticates() throws Exception {
+        String token = jwtUtil.generateToken(user.getId(), user.getEmail(), user.getRole().getName());
+
+        mockMvc.perform(get("/api/tasks/all-tasks").param("view", "compact").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.owner.id").value(user.getId()))
+                .andExpect(jsonPath("$.data.owner.username").value("Display Name"));
+    }
+
+    @Test
+    void tokenIssuedBeforeTheUidClaimStillAuthenticates() throws Exception {
+        String token = sign(Map.of("name", user.getEmail(), "role", "USER"));
+
+        mockMvc.perform(get("/api/tasks/all-tasks").param("view", "compact").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.owner.id").value(user.getId()))
+                .andExpect(jsonPath("$.data.owner.username").value("Display Name"));
+    }
+
+    @Test
+    void ownerRoleComesFromTheStoredUserNotTheToken() throws Exception {
+        // As if the user had been an admin when the token was issued
+        String token = jwtUtil.generateToken(user.getId(), user.getEmail(), ERole.ADMIN);
+
+        mockMvc.perform(get("/api/tasks/all-tasks").param("view", "compact").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.owner.role").value("USER"));
+    }
+
+    @Test
+    void tokenWithAnUnknownRoleIsUnauthorized() throws Exception {
+        String token = sign(Map.of("uid", user.getId(), "name", user.getEmail(), "role", "SUPERUSER"));
+
+        mockMvc.perform(get("/api/tasks/all-tasks").header("Authorization", "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void missingTokenIsUnauthorized() throws Exception {
+        mockMvc.perform(get("/api/tasks/all-tasks"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    // A token for the user with exactly the given claims, signed like JwtUtil's
+    private String sign(Map<String, Object> claims) {
+        String secret = (String) ReflectionTestUtils.getField(jwtUtil, "SECRET_KEY");
+        return Jwts.builder()
+                .setClaims(claims)
+                .setSubject(user.getEmail())
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(SignatureAlgorithm.HS256, secret.getBytes())
+                .compact();
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.demo.repository;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs each TaskRepository access path, captures the SQL Hibernate generated for it and EXPLAINs that against the
+// migrated schema (H2 in MySQL mode), checking that the planner picks the index designed for it.
+@DataJpaTest
+@Import(TaskRepositoryIndexTest.CaptureSql.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:explain;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TaskRepositoryIndexTest {
+
+    private static final int USERS = 50;
+    private static final int TASKS_PER_USER = 200;
+
+    // Every statement Hibernate prepares, in order
+    private static final List<String> capturedSql = new CopyOnWriteArrayList<>();
+
+    @TestConfiguration
+    static class CaptureSql {
+        @Bean
+        HibernatePropertiesCustomizer captureSql() {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+                capturedSql.add(sql);
+                return sql;
+            });
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TaskRepository taskRepository;
+
+    // Plans are cost based, so give the planner a realistic spread: many users, many tasks each, varied dates.
+    // ANALYZE commits, so this runs once against a database private to this class.
+    @BeforeAll
+    void populate() {
+        jdbcTemplate.update("INSERT INTO role (name) VALUES ('USER')");
+        Long roleId = jdbcTemplate.queryForObject("SELECT id FROM role WHERE name = 'USER'", Long.class);
+        List<Object[]> users = new ArrayList<>();
+        for (int u = 1; u <= USERS; u++) {
+            users.add(new Object[]{u, "user" + u, "x", "user" + u + "@example.com", roleId});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (user_id, name, password, email, role_id) VALUES (?, ?, ?, ?, ?)", users);
+
+        List<Object[]> tasks = new ArrayList<>();
+        LocalDate start = LocalDate.of(2030, 1, 1);
+        for (int i = 0; i < USERS * TASKS_PER_USER; i++) {
+            LocalDate dueDate = i % 10 == 0 ? null : start.plusDays(i % 365);
+            tasks.add(new Object[]{"task " + i, "description " + i, dueDate, i % 101, i % 2 == 0, i % 7 == 0, i % USERS + 1});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO tasks (task_title, task_description, due_date, progress, is_completed, is_important, user_id) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)", tasks);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    // Runs the repository call, then EXPLAINs the SQL Hibernate generated for it; parameters stay unbound
+    private String explain(Runnable repositoryCall) {
+        capturedSql.clear();
+        repositoryCall.run();
+        assertThat(capturedSql).hasSize(1);
+        return jdbcTemplate.queryForList("EXPLAIN " + capturedSql.get(0), String.class).get(0).toLowerCase();
+    }
+
+    // Any index seek on user_id serves a whole-user read; H2 picks the foreign key's index
+    @Test
+    void findItemsByUserIdSeeksOnUserId() {
+        String plan = explain(() -> taskRepository.findItemsByUserId(1L));
+        assertThat(plan).containsPattern(": user_id = \\?\\d").doesNotContain("tablescan");
+    }
+
+    // The dashboard query filtered by status only (GET /api/tasks/query?completed=true)
+    @Test
+    void completedFilterUsesUserCompletedIndex() {
+        String plan = explain(() -> taskRepository.findItems(Specification.where(TaskSpecifications.ownedBy(1L))
+                .and(TaskSpecifications.isCompleted(true)), Sort.by("id"), 0, 51));
+        assertThat(plan).contains("idx_tasks_user_completed");
+    }
+
+    @Test
+    void importantFilterUsesUserImportantIndex() {
+        String plan = explain(() -> taskRepository.findItems(Specification.where(TaskSpecifications.ownedBy(1L))
+                .and(TaskSpecifications.isImportant(true)), Sort.by("id"), 0, 51));
+        assertThat(plan).contains("idx_tasks_user_important");
+    }
+
+    @Test
+    void findByIdAndUserIdUsesPrimaryKey() {
+        String plan = explain(() -> taskRepository.findByIdAndUserId(5L, 1L));
+        assertThat(plan).contains("primary_key");
+    }
+
+    @Test
+    void datedKeysetPageUsesUserDueDateIndex() {
+        String plan = explain(() -> taskRepository.findDatedPageAfter(1L, LocalDate.of(2030, 1, 1), 10L, PageRequest.of(0, 51)));
+        assertThat(plan).contains("idx_tasks_user_due_date");
+    }
+
+    @Test
+    void undatedKeysetPageUsesUserDueDateIndex() {
+        String plan = explain(() -> taskRepository.findUndatedPageAfter(1L, 10L, PageRequest.of(0, 51)));
+        assertThat(plan).contains("idx_tasks_user_due_date");
+    }
+
+    // Depending on the join order the planner seeks either idx_tasks_due_date directly or
+    // idx_tasks_user_due_date per user; both are range scans on due_date rather than a table scan
+    @Test
+    void dueSoonKeysetPageUsesDueDateIndex() {
+        String plan = explain(() -> taskRepository.findDueSoonPageAfter(LocalDate.of(2030, 1, 1), LocalDate.of(2030, 1, 2),
+                100L, 4, 1, PageRequest.of(0, 500)));
+        assertThat(plan).containsAnyOf("idx_tasks_due_date: due_date >=", "idx_tasks_user_due_date: due_date >=");
+    }
+
+    @Test
+    void unremindedDuePageUsesDueDateIndex() {
+        String plan = explain(() -> taskRepository.findUnremindedDuePageAfter(LocalDate.of(2030, 1, 1),
+                LocalDate.of(2030, 1, 3), 0L, PageRequest.of(0, 500)));
+        assertThat(plan).contains("idx_tasks_due_date: due_date >=");
+    }
+
+    @Test
+    void summarizeByCategorySeeksOnUserId() {
+        String plan = explain(() -> taskRepository.summarizeByCategory(1L, LocalDate.of(2030, 1, 1)));
+        assertThat(plan).containsPattern(": user_id = \\?\\d").doesNotContain("tablescan");
+    }
+
+    @Test
+    void changeFeedPageUsesUserChangeSeqIndex() {
+        String plan = explain(() -> taskRepository.findChangesAfter(1L, 0L, 0L, PageRequest.of(0, 51)));
+        assertThat(plan).contains("idx_tasks_user_change_seq: user_id = ");
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.demo.service;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.TestUsers;
+import com.example.demo.entity.EmailOutboxMessage;
+import com.example.demo.entity.JobLease;
+import com.example.demo.entity.ReminderRun;
+import com.example.demo.entity.Task;
+import com.example.demo.entity.User;
+import com.example.demo.exception.LeaseLostException;
+import com.example.demo.repository.EmailOutboxRepository;
+import com.example.demo.repository.RoleRepository;
+import com.example.demo.repository.UserRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Three application contexts on one embedded database stand in for three instances of the application.
+// Their reminder runs share out the partitions (each emailed exactly once), a dead node's partition is taken
+// over when its lease expires, and a node that lost its lease cannot commit anymore.
+class ClusteredReminderRunTest {
+
+    private static final int NODES = 3;
+    private static final int PARTITIONS = 6;
+    private static final int USERS = 12;
+
+    private static final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+
+    @BeforeAll
+    static void startNodes() {
+        for (int i = 0; i < NODES; i++) {
+            nodes.add(new SpringApplicationBuilder(DemoApplication.class)
+                    .properties("server.port=0",
+                            "app.reminders.mode=digest",
+                            "app.reminders.partitions=" + PARTITIONS,
+                            "app.reminders.page-size=2",
+                            "app.reminders.takeover-check-ms=3600000")
+                    .run());
+        }
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    void nodesShareTheRunAndEmailEveryOwnerOnce() throws Exception {
+        LocalDate runDate = LocalDate.of(2041, 1, 10);
+        List<User> owners = createOwnersWithTasksDue(runDate);
+
+        List<List<ReminderRun>> finished = runOnAllNodes(runDate);
+
+        // Every partition was run by exactly one node
+        List<Integer> partitions = finished.stream().flatMap(List::stream).map(ReminderRun::getPartition).toList();
+        assertThat(partitions).containsExactlyInAnyOrderElementsOf(IntStream.range(0, PARTITIONS).boxed().toList());
+        assertThat(finished.stream().flatMap(List::stream).mapToInt(ReminderRun::getSent).sum()).isEqualTo(USERS);
+        assertThat(digestsPerRecipient(owners)).containsOnlyKeys(emails(owners)).allSatisfy((email, count) ->
+                assertThat(count).isEqualTo(1L));
+    }
+
+    @Test
+    void partitionOfADeadNodeIsTakenOverOnceItsLeaseExpires() throws Exception {
+        LocalDate runDate = LocalDate.of(2041, 2, 20);
+        List<User> owners = createOwnersWithTasksDue(runDate);
+        // Node 0 takes partition 0 and dies without releasing it
+        JobLease abandoned = bean(0, JobLeaseService.class)
+                .tryAcquire("due-soon-reminders:0", Duration.ofSeconds(5)).orElseThrow();
+
+        List<ReminderRun> first = bean(1, DueSoonReminderService.class).run(runDate);
+        assertThat(first).extracting(ReminderRun::getPartition).doesNotContain(0).hasSize(PARTITIONS - 1);
+
+        Duration untilExpiry = Duration.between(LocalDateTime.now(ZoneOffset.UTC), abandoned.getExpiresAt());
+        Thread.sleep(Math.max(0, untilExpiry.toMillis()) + 100);
+        List<ReminderRun> takeover = bean(2, DueSoonReminderService.class).run(runDate);
+        assertThat(takeover).extracting(ReminderRun::getPartition).containsExactly(0);
+        assertThat(digestsPerRecipient(owners)).containsOnlyKeys(emails(owners)).allSatisfy((email, count) ->
+                assertThat(count).isEqualTo(1L));
+
+        // The dead node's tenure is over for good
+        TransactionTemplate transactionTemplate = bean(0, TransactionTemplate.class);
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status ->
+                bean(0, JobLeaseService.class).checkHeld(abandoned, Duration.ofMinutes(1))))
+                .isInstanceOf(LeaseLostException.class);
+    }
+
+    @Test
+    void leaseIsExclusiveAndFenced() {
+        String job = "test-job-" + UUID.randomUUID();
+        JobLeaseService nodeA = bean(0, JobLeaseService.class);
+        JobLeaseService nodeB = bean(1, JobLeaseService.class);
+
+        JobLease first = nodeA.tryAcquire(job, Duration.ofMinutes(1)).orElseThrow();
+        assertThat(nodeB.tryAcquire(job, Duration.ofMinutes(1))).isEmpty();
+
+        // A stalls past its expiry (simulated by releasing it) and B takes over with a newer token
+        nodeA.release(first);
+        JobLease second = nodeB.tryAcquire(job, Duration.ofMinutes(1)).orElseThrow();
+        assertThat(second.getOwner()).isEqualTo(nodeB.getNodeId());
+        assertThat(second.getFencingToken()).isGreaterThan(first.getFencingToken());
+
+        assertThatThrownBy(() -> bean(0, TransactionTemplate.class).executeWithoutResult(status ->
+                nodeA.checkHeld(first, Duration.ofMinutes(1))))
+                .isInstanceOf(LeaseLostException.class);
+        bean(1, TransactionTemplate.class).executeWithoutResult(status -> nodeB.checkHeld(second, Duration.ofMinutes(1)));
+    }
+
+    private static <T> T bean(int node, Class<T> type) {
+        return nodes.get(node).getBean(type);
+    }
+
+    // Starts the run on every node at the same moment
+    private static List<List<ReminderRun>> runOnAllNodes(LocalDate runDate) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(NODES);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<List<ReminderRun>>> runs = new ArrayList<>();
+            for (int i = 0; i < NODES; i++) {
+                DueSoonReminderService service = bean(i, DueSoonReminderService.class);
+                runs.add(executor.submit(() -> {
+                    start.await();
+                    return service.run(runDate, DueSoonReminderService.Mode.DIGEST);
+                }));
+            }
+            start.countDown();
+            List<List<ReminderRun>> finished = new ArrayList<>();
+            for (Future<List<ReminderRun>> run : runs) {
+                finished.add(run.get(60, TimeUnit.SECONDS));
+            }
+            return finished;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<User> createOwnersWithTasksDue(LocalDate runDate) {
+        UserRepository userRepository = bean(0, UserRepository.class);
+        RoleRepository roleRepository = bean(0, RoleRepository.class);
+        TaskService taskService = bean(0, TaskService.class);
+        List<User> owners = new ArrayList<>();
+        for (int u = 0; u < USERS; u++) {
+            User user = TestUsers.create(userRepository, roleRepository, "clustered " + u);
+            owners.add(user);
+            for (int t = 0; t < 2; t++) {
+                Task task = new Task();
+                task.setTaskTitle("due " + runDate + " #" + t);
+                task.setTaskDescription("description " + t);
+                task.setDueDate(runDate.plusDays(t));
+                taskService.createTask(task, user.getId());
+            }
+        }
+        return owners;
+    }
+
+    private static Set<String> emails(List<User> owners) {
+        return owners.stream().map(User::getEmail).collect(Collectors.toCollection(HashSet::new));
+    }
+
+    private static Map<String, Long> digestsPerRecipient(List<User> owners) {
+        Set<String> emails = emails(owners);
+        return bean(0, EmailOutboxRepository.class).findAll().stream()
+                .map(EmailOutboxMessage::getRecipient)
+                .filter(emails::contains)
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.demo.service;
+
+import com.example.demo.TestUsers;
+import com.example.demo.entity.ReminderRun;
+import com.example.demo.entity.Task;
+import com.example.demo.entity.User;
+import com.example.demo.repository.ReminderRunRepository;
+import com.example.demo.repository.RoleRepository;
+import com.example.demo.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+// Reminders are sent page by page for open tasks due on the run date or the day after (one digest per owner,
+// or one email per task), and a run resumes from its checkpoint. Each test uses its own far-future run date so other tests' tasks never match.
+@SpringBootTest(properties = {"app.reminders.page-size=2", "app.reminders.partitions=" + DueSoonReminderServiceTest.PARTITIONS})
+class DueSoonReminderServiceTest {
+
+    static final int PARTITIONS = 2;
+
+    @Autowired
+    private DueSoonReminderService reminderService;
+    @Autowired
+    private TaskService taskService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private ReminderRunRepository reminderRunRepository;
+    @MockBean
+    private EmailService emailService;
+
+    private User user;
+
+    @BeforeEach
+    void createUser() {
+        user = TestUsers.create(userRepository, roleRepository, "reminded");
+    }
+
+    @Test
+    void sendsOneDigestPerOwner() throws Exception {
+        LocalDate runDate = LocalDate.of(2040, 5, 15);
+        List<Task> today = createTasks(runDate, 2, false);
+        List<Task> tomorrow = createTasks(runDate.plusDays(1), 1, false);
+        createTasks(runDate, 1, true); // completed
+        User other = user;
+        createUser();
+        createTasks(runDate, 1, false);
+        createUser();
+        createTasks(runDate, 1, false);
+
+        List<ReminderRun> runs = reminderService.run(runDate, DueSoonReminderService.Mode.DIGEST);
+
+        // Three owners, one email each, whichever partition they fall in
+        assertThat(runs).hasSize(PARTITIONS);
+        assertThat(sent(runs)).isEqualTo(3);
+        ArgumentCaptor<String> body = ArgumentCaptor.forClass(String.class);
+        verify(emailService).sendEmail(eq(other.getEmail()), eq("Reminder: 3 tasks due soon"), body.capture());
+        assertThat(body.getValue())
+                .contains(today.get(0).getTaskTitle(), today.get(1).getTaskTitle(), tomorrow.get(0).getTaskTitle())
+                .contains("Hello <span>reminded</span>,");
+        verify(emailService).sendEmail(eq(user.getEmail()), eq("Reminder: 1 task due soon"), anyString());
+    }
+
+    @Test
+    void sendsEveryOpenTaskDueSoonOnce() throws Exception {
+        LocalDate runDate = LocalDate.of(2040, 3, 10);
+        createTasks(runDate, 3, false);
+        createTasks(runDate.plusDays(1), 2, false);
+        createTasks(runDate, 1, true);              // completed
+        createTasks(runDate.plusDays(2), 1, false); // not due soon
+
+        List<ReminderRun> runs = reminderService.run(runDate, DueSoonReminderService.Mode.PER_TASK);
+
+        assertThat(runs).allMatch(ReminderRun::isCompleted);
+        assertThat(sent(runs)).isEqualTo(5);
+        verify(emailService, times(5)).sendEmail(eq(user.getEmail()), anyString(), anyString());
+
+        // A finished run is not repeated
+        assertThat(reminderService.run(runDate, DueSoonReminderService.Mode.PER_TASK)).isEmpty();
+        verify(emailService, times(5)).sendEmail(eq(user.getEmail()), anyString(), anyString());
+    }
+
+    @Test
+    void resumesAfterTheCheckpoint() throws Exception {
+        LocalDate runDate = LocalDate.of(2040, 4, 20);
+        List<Task> tasks = createTasks(runDate, 4, false);
+        int partition = (int) (user.getId() % PARTITIONS);
+        ReminderRun interrupted = new ReminderRun(runDate, partition, LocalDateTime.now(ZoneOffset.UTC));
+        interrupted.setLastDueDate(runDate);
+        interrupted.setLastTaskId(tasks.get(1).getId());
+        interrupted.setSent(2);
+        reminderRunRepository.save(interrupted);
+
+        List<ReminderRun> runs = reminderService.run(runDate, DueSoonReminderService.Mode.PER_TASK);
+
+        assertThat(runs).filteredOn(run -> run.getPartition() == partition)
+                .singleElement().extracting(ReminderRun::getSent).isEqualTo(4);
+        verify(emailService, times(2)).sendEmail(eq(user.getEmail()), anyString(), anyString());
+        verify(emailService, never()).sendEmail(anyString(), anyString(), contains(tasks.get(0).getTaskDescription()));
+        verify(emailService).sendEmail(anyString(), anyString(), contains(tasks.get(3).getTaskDescription()));
+    }
+
+    private static int sent(List<ReminderRun> runs) {
+        return runs.stream().mapToInt(ReminderRun::getSent).sum();
+    }
+
+    private List<Task> createTasks(LocalDate dueDate, int count, boolean completed) {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Task task = new Task();
+            task.setTaskTitle("due " + dueDate + " #" + i);
+            task.setTaskDescription("description " + UUID.randomUUID());
+            task.setDueDate(dueDate);
+            task.setCompleted(completed);
+            tasks.add(taskService.createTask(task, user.getId()));
+        }
+        return tasks;
+    }
+}
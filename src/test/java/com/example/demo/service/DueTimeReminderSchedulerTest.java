@@ -0,0 +1,124 @@
+package com.example.demo.service;
+
+import com.example.demo.TestUsers;
+import com.example.demo.entity.Task;
+import com.example.demo.entity.User;
+import com.example.demo.repository.RoleRepository;
+import com.example.demo.repository.TaskRepository;
+import com.example.demo.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+// Tasks are considered due at midnight and reminded 72 hours before, so a task due within the next three days
+// is past its reminder time when created and is reminded right away, while one due later is not reminded yet.
+@SpringBootTest(properties = {
+        "app.reminders.realtime.enabled=true",
+        "app.reminders.realtime.due-time=00:00",
+        "app.reminders.realtime.lead-minutes=4320"
+})
+class DueTimeReminderSchedulerTest {
+
+    @Autowired
+    private DueTimeReminderScheduler scheduler;
+    @Autowired
+    private TaskService taskService;
+    @Autowired
+    private TaskRepository taskRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @MockBean
+    private EmailService emailService;
+
+    private User user;
+    private LocalDate today;
+
+    @BeforeEach
+    void createUser() {
+        user = TestUsers.create(userRepository, roleRepository, "due-time");
+        today = LocalDate.now();
+    }
+
+    @Test
+    void remindsATaskCreatedAfterItsReminderTimeRightAway() {
+        Task task = taskService.createTask(newTask(today.plusDays(2), false), user.getId());
+
+        verify(emailService, timeout(5000)).sendEmail(eq(user.getEmail()),
+                eq(DueSoonReminderService.TASK_REMINDER_SUBJECT), contains(task.getTaskDescription()));
+        assertThat(taskRepository.findById(task.getId()).orElseThrow().getRemindedDueDate()).isEqualTo(today.plusDays(2));
+    }
+
+    @Test
+    void remindsOncePerDueDate() {
+        Task task = taskService.createTask(newTask(today.plusDays(1), false), user.getId());
+        verify(emailService, timeout(5000)).sendEmail(eq(user.getEmail()), anyString(), anyString());
+
+        // Neither an unrelated edit nor a resync reminds again...
+        Task edit = taskRepository.findById(task.getId()).orElseThrow();
+        edit.setTaskTitle("renamed");
+        taskService.updateTask(task.getId(), edit, user.getId());
+        scheduler.resync();
+        verify(emailService, after(500).times(1)).sendEmail(eq(user.getEmail()), anyString(), anyString());
+
+        // ...but moving the task to another due date does
+        edit = taskRepository.findById(task.getId()).orElseThrow();
+        edit.setDueDate(today.plusDays(3));
+        taskService.updateTask(task.getId(), edit, user.getId());
+        verify(emailService, timeout(5000).times(2)).sendEmail(eq(user.getEmail()), anyString(), anyString());
+    }
+
+    @Test
+    void completedAndLaterTasksAreNotReminded() {
+        taskService.createTask(newTask(today.plusDays(1), true), user.getId());
+        taskService.createTask(newTask(today.plusDays(30), false), user.getId());
+        scheduler.resync();
+
+        verify(emailService, after(500).never()).sendEmail(eq(user.getEmail()), anyString(), anyString());
+    }
+
+    @Test
+    void tasksDueBeforeTodayAreNotReminded() {
+        Task task = taskService.createTask(newTask(today.minusDays(1), false), user.getId());
+
+        verify(emailService, after(500).never()).sendEmail(eq(user.getEmail()), anyString(), anyString());
+        assertThat(taskRepository.findById(task.getId()).orElseThrow().getRemindedDueDate()).isNull();
+    }
+
+    @Test
+    void resyncPicksUpTasksWrittenByAnotherNode() {
+        // Saved without going through TaskService, so this node never hears of it
+        Task task = newTask(today.plusDays(1), false);
+        task.setUser(user);
+        task.setVersion(0L);
+        taskRepository.save(task);
+        verify(emailService, after(300).never()).sendEmail(eq(user.getEmail()), anyString(), anyString());
+
+        scheduler.resync();
+
+        verify(emailService, timeout(5000)).sendEmail(eq(user.getEmail()), anyString(), contains(task.getTaskDescription()));
+    }
+
+    private static Task newTask(LocalDate dueDate, boolean completed) {
+        Task task = new Task();
+        task.setTaskTitle("due " + dueDate);
+        task.setTaskDescription("description " + UUID.randomUUID());
+        task.setDueDate(dueDate);
+        task.setCompleted(completed);
+        return task;
+    }
+}
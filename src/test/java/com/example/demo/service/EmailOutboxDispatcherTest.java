@@ -0,0 +1,166 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.EmailOutboxMessage;
+import com.example.demo.entity.EmailOutboxMessage.Status;
+import com.example.demo.repository.EmailOutboxRepository;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Emails queued through EmailService are delivered by the dispatcher to an embedded SMTP server (GreenMail on
+// spring.mail.port), only once their transaction commits, and retried with backoff while the server is down.
+// Every test mails its own recipient, so messages of other tests never interfere.
+@SpringBootTest(properties = {
+        "app.mail.outbox.enabled=true",
+        "app.mail.outbox.poll-interval-ms=100",
+        "app.mail.outbox.batch-size=10",
+        "app.mail.outbox.connections=2",
+        "app.mail.outbox.max-attempts=3",
+        "app.mail.outbox.initial-backoff-ms=200",
+        "app.mail.outbox.max-backoff-ms=400"
+})
+class EmailOutboxDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private EmailService emailService;
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+    @Autowired
+    private JavaMailSender mailSender;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void deliversEmailsQueuedInACommittedTransaction() throws Exception {
+        String recipient = recipient();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < 25; i++) {
+                emailService.sendEmail(recipient, "Subject " + i, "<p>Body " + i + "</p>");
+            }
+        });
+
+        awaitTrue(() -> messagesFor(recipient).stream().allMatch(m -> m.getStatus() == Status.SENT));
+        assertThat(greenMail.getReceivedMessagesForDomain(recipient)).hasSize(25);
+        assertThat(messagesFor(recipient)).allSatisfy(m -> {
+            assertThat(m.getAttempts()).isEqualTo(1);
+            assertThat(m.getSentAt()).isNotNull();
+        });
+    }
+
+    @Test
+    void emailsOfARolledBackTransactionAreNeverSent() throws Exception {
+        String rolledBack = recipient();
+        String committed = recipient();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            emailService.sendEmail(rolledBack, "Never", "<p>rolled back</p>");
+            status.setRollbackOnly();
+        });
+        emailService.sendEmail(committed, "Sent", "<p>committed</p>");
+
+        awaitTrue(() -> greenMail.getReceivedMessagesForDomain(committed).length == 1);
+        assertThat(messagesFor(rolledBack)).isEmpty();
+        assertThat(greenMail.getReceivedMessagesForDomain(rolledBack)).isEmpty();
+    }
+
+    @Test
+    void retriesWithBackoffUntilTheServerIsBack() throws Exception {
+        String recipient = recipient();
+        greenMail.stop();
+
+        emailService.sendEmail(recipient, "Retried", "<p>eventually</p>");
+
+        awaitTrue(() -> messagesFor(recipient).get(0).getAttempts() >= 2);
+        EmailOutboxMessage failing = messagesFor(recipient).get(0);
+        assertThat(failing.getStatus()).isEqualTo(Status.PENDING);
+        assertThat(failing.getLastError()).isNotBlank();
+
+        greenMail.start();
+        awaitTrue(() -> messagesFor(recipient).get(0).getStatus() == Status.SENT);
+        assertThat(greenMail.getReceivedMessagesForDomain(recipient)).hasSize(1);
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() throws Exception {
+        String recipient = recipient();
+        greenMail.stop();
+
+        emailService.sendEmail(recipient, "Lost", "<p>never delivered</p>");
+
+        awaitTrue(() -> messagesFor(recipient).get(0).getStatus() == Status.FAILED);
+        assertThat(messagesFor(recipient).get(0).getAttempts()).isEqualTo(3);
+    }
+
+    @Test
+    void concurrentDispatchersNeverSendAnEmailTwice() throws Exception {
+        String recipient = recipient();
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        List<EmailOutboxMessage> queued = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            queued.add(new EmailOutboxMessage(recipient, "Contended " + i, "<p>" + i + "</p>", now));
+        }
+        outboxRepository.saveAll(queued);
+
+        // Two more dispatchers (as on other nodes) race the application's own one
+        ExecutorService nodes = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<?>> runs = new ArrayList<>();
+            for (int n = 0; n < 2; n++) {
+                EmailOutboxDispatcher node = new EmailOutboxDispatcher(outboxRepository, mailSender, transactionTemplate,
+                        false, 100, 10, 2, 300, 3, 200, 400, 5, 7);
+                runs.add(nodes.submit(() -> {
+                    while (node.dispatchBatch() > 0) {
+                        // keep claiming until nothing is due
+                    }
+                }));
+            }
+            for (Future<?> run : runs) {
+                run.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            nodes.shutdownNow();
+        }
+
+        awaitTrue(() -> messagesFor(recipient).stream().allMatch(m -> m.getStatus() == Status.SENT));
+        assertThat(greenMail.getReceivedMessagesForDomain(recipient)).hasSize(60);
+        assertThat(messagesFor(recipient)).allSatisfy(m -> assertThat(m.getAttempts()).isEqualTo(1));
+    }
+
+    private List<EmailOutboxMessage> messagesFor(String recipient) {
+        return outboxRepository.findAll().stream().filter(m -> m.getRecipient().equals(recipient)).toList();
+    }
+
+    private static String recipient() {
+        return UUID.randomUUID() + "@example.com";
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(15);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met within 15s").isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.demo.service;
+
+import com.example.demo.TestUsers;
+import com.example.demo.entity.Task;
+import com.example.demo.event.TaskChangedEvent;
+import com.example.demo.repository.RoleRepository;
+import com.example.demo.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// POST /api/tasks/batch inserts through JDBC batches and announces the batch with a single event
+@SpringBootTest
+@RecordApplicationEvents
+class TaskBatchCreateTest {
+
+    private static final int TASKS = 120;
+
+    @Autowired
+    private TaskService taskService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private ApplicationEvents events;
+
+    @Test
+    void insertsAreBatchedAndPublishedAsOneEvent() {
+        Long userId = TestUsers.create(userRepository, roleRepository, "batch").getId();
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            Task task = new Task();
+            task.setTaskTitle("batched " + i);
+            task.setTaskDescription("inserted with the others");
+            tasks.add(task);
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        taskService.createTasks(tasks, userId);
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(TASKS);
+        // One statement per JDBC batch of hibernate.jdbc.batch_size (50) inserts, plus the task_version UPDATE and
+        // SELECT; unbatched, each insert would be a statement of its own
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3 + 2);
+
+        List<TaskChangedEvent> published = events.stream(TaskChangedEvent.class).toList();
+        assertThat(published).hasSize(1);
+        assertThat(published.get(0).getCreatedTasks()).hasSize(TASKS);
+        assertThat(published.get(0).getTask()).isNull();
+    }
+}
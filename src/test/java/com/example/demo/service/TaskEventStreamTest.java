@@ -0,0 +1,42 @@
+package com.example.demo.service;
+
+import com.example.demo.event.TaskChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A user's last stream going away drops the user's subscriber list, racing a new stream being added to it
+class TaskEventStreamTest {
+
+    private static final int USERS = 10_000;
+
+    private final TaskEventStream stream = new TaskEventStream(30, 15, 16, 5, 2);
+
+    @AfterEach
+    void shutdown() {
+        stream.shutdown();
+    }
+
+    @Test
+    void streamOpenedWhileTheLastOneClosesIsKept() throws Exception {
+        for (long userId = 1; userId <= USERS; userId++) {
+            SseEmitter closing = stream.subscribe(userId);
+            // The next event fails to send on the completed emitter, and a sender thread removes the subscriber
+            closing.complete();
+            stream.onTaskChanged(TaskChangedEvent.deleted(userId, 1L));
+            stream.subscribe(userId);
+        }
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        for (long userId = 1; userId <= USERS; userId++) {
+            while (stream.subscriberCount(userId) != 1 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(stream.subscriberCount(userId)).as("subscribers of user %d", userId).isEqualTo(1);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.demo.service;
+
+import com.example.demo.TestUsers;
+import com.example.demo.dto.UserDto;
+import com.example.demo.dto.tasks.TaskItemDto;
+import com.example.demo.entity.ERole;
+import com.example.demo.entity.Task;
+import com.example.demo.entity.User;
+import com.example.demo.repository.RoleRepository;
+import com.example.demo.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Task lists are served from the per-user snapshot and never outlive a change to the user's tasks
+@SpringBootTest
+class TaskListCacheTest {
+
+    @Autowired
+    private TaskService taskService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private UserDto owner;
+    private Long taskId;
+
+    @BeforeEach
+    void createTask() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        User user = TestUsers.create(userRepository, roleRepository, "lists");
+        owner = new UserDto(user.getId(), user.getEmail(), user.getName(), ERole.USER);
+
+        Task task = new Task();
+        task.setTaskTitle("cached");
+        task.setTaskDescription("listed from the snapshot");
+        taskId = taskService.createTask(task, user.getId()).getId();
+    }
+
+    @Test
+    void repeatedReadsOnlyCheckTheVersion() {
+        taskService.getAllTasks(owner);
+        statistics.clear();
+
+        assertThat(taskService.getAllTasks(owner).getTasks()).hasSize(1);
+        assertThat(taskService.getTasksByCompletion(owner, false).getTasks()).hasSize(1);
+        assertThat(taskService.getTasksByImportance(owner, true).getTasks()).isEmpty();
+
+        // One users.task_version lookup per call, no task query
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void writesAreVisibleImmediately() {
+        assertThat(taskService.getTasksByCompletion(owner, true).getTasks()).isEmpty();
+
+        taskService.updateTaskStatus(taskId, Map.of("isCompleted", true), owner.getId());
+        assertThat(taskService.getTasksByCompletion(owner, true).getTasks())
+                .extracting(TaskItemDto::getTaskId).containsExactly(taskId);
+
+        taskService.deleteTask(taskId, owner.getId());
+        assertThat(taskService.getAllTasks(owner).getTasks()).isEmpty();
+    }
+
+    @Test
+    void changesMadeElsewhereAreDetectedByVersion() {
+        taskService.getAllTasks(owner);
+
+        // Another node writes the task and bumps the version without touching this node's cache
+        jdbcTemplate.update("UPDATE tasks SET task_title = 'renamed' WHERE id = ?", taskId);
+        jdbcTemplate.update("UPDATE users SET task_version = task_version + 1 WHERE user_id = ?", owner.getId());
+
+        assertThat(taskService.getAllTasks(owner).getTasks())
+                .extracting(TaskItemDto::getTaskTitle).containsExactly("renamed");
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.demo.service;
+
+import com.example.demo.TestUsers;
+import com.example.demo.entity.Task;
+import com.example.demo.entity.User;
+import com.example.demo.repository.RoleRepository;
+import com.example.demo.repository.TaskRepository;
+import com.example.demo.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Search results follow the change feed, including writes this node saw no event for
+@SpringBootTest
+class TaskSearchIndexTest {
+
+    @Autowired
+    private TaskService taskService;
+    @Autowired
+    private TaskSearchIndex taskSearchIndex;
+    @Autowired
+    private TaskRepository taskRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+    private Long taskId;
+
+    @BeforeEach
+    void createTask() throws InterruptedException {
+        // The index is built in the background; until then searches are answered by SQL
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!taskSearchIndex.isReady() && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(taskSearchIndex.isReady()).isTrue();
+
+        User user = TestUsers.create(userRepository, roleRepository, "search");
+        userId = user.getId();
+        Task task = new Task();
+        task.setTaskTitle("water the plants");
+        task.setTaskDescription("the fern needs 100% more");
+        taskId = taskService.createTask(task, userId).getId();
+    }
+
+    @Test
+    void writesFromAnotherNodeAreFoundAfterTheVersionMoves() {
+        assertThat(taskService.searchTasksByTitle("plants", userId, 0, 10)).extracting(Task::getId).containsExactly(taskId);
+
+        // Another node renames the task, stamping it with the user's next change sequence
+        jdbcTemplate.update("UPDATE users SET task_version = task_version + 1 WHERE user_id = ?", userId);
+        jdbcTemplate.update("UPDATE tasks SET task_title = 'feed the cat', change_seq = " +
+                "(SELECT task_version FROM users WHERE user_id = ?) WHERE id = ?", userId, taskId);
+        assertThat(taskService.searchTasksByTitle("plants", userId, 0, 10)).isEmpty();
+        assertThat(taskService.searchTasksByTitle("cat", userId, 0, 10)).extracting(Task::getId).containsExactly(taskId);
+
+        // ... and deletes it, leaving a tombstone
+        jdbcTemplate.update("UPDATE users SET task_version = task_version + 1 WHERE user_id = ?", userId);
+        jdbcTemplate.update("INSERT INTO task_tombstones (user_id, task_id, change_seq, deleted_at) " +
+                "SELECT user_id, ?, task_version, ? FROM users WHERE user_id = ?", taskId, LocalDateTime.now(), userId);
+        jdbcTemplate.update("DELETE FROM tasks WHERE id = ?", taskId);
+        assertThat(taskService.searchTasksByTitle("cat", userId, 0, 10)).isEmpty();
+    }
+
+    @Test
+    void pageBeyondTheLastHitIsEmpty() {
+        assertThat(taskService.searchTasksByTitle("plants", userId, Integer.MAX_VALUE, 10)).isEmpty();
+    }
+
+    @Test
+    void fallbackMatchesDescriptionsAndTakesWildcardsLiterally() {
+        assertThat(taskRepository.findByUserIdAndTextLike(userId, "%fern%", PageRequest.of(0, 10)))
+                .extracting(Task::getId).containsExactly(taskId);
+        assertThat(taskRepository.findByUserIdAndTextLike(userId, "%100!%%", PageRequest.of(0, 10)))
+                .extracting(Task::getId).containsExactly(taskId);
+        assertThat(taskRepository.findByUserIdAndTextLike(userId, "%10!%0%", PageRequest.of(0, 10))).isEmpty();
+    }
+}
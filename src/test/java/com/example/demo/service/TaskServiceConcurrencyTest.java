@@ -0,0 +1,155 @@
+package com.example.demo.service;
+
+import com.example.demo.TestUsers;
+import com.example.demo.entity.Task;
+import com.example.demo.exception.TaskVersionConflictException;
+import com.example.demo.repository.RoleRepository;
+import com.example.demo.repository.TaskRepository;
+import com.example.demo.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Many threads write the same task at once; every accepted write must be reflected in the final state
+@SpringBootTest
+class TaskServiceConcurrencyTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private TaskService taskService;
+    @Autowired
+    private TaskRepository taskRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+
+    private Long userId;
+    private Long taskId;
+
+    @BeforeEach
+    void createTask() {
+        userId = TestUsers.create(userRepository, roleRepository, "concurrency").getId();
+
+        Task task = new Task();
+        task.setTaskTitle("contended");
+        task.setTaskDescription("written from many threads");
+        taskId = taskService.createTask(task, userId).getId();
+    }
+
+    @Test
+    void concurrentPatchesAreAllApplied() throws Exception {
+        int perThread = 25;
+        long before = currentVersion();
+
+        runConcurrently(thread -> () -> {
+            for (int i = 0; i < perThread; i++) {
+                taskService.updateTaskStatus(taskId, Map.of("isCompleted", i % 2 == 0, "isImportant", thread % 2 == 0), userId);
+            }
+            return null;
+        });
+
+        // Each PATCH is one UPDATE ... SET version = version + 1, so none can overwrite another
+        assertThat(currentVersion()).isEqualTo(before + (long) THREADS * perThread);
+    }
+
+    @Test
+    void concurrentPutsNeverLoseAnIncrement() throws Exception {
+        int perThread = 10;
+        AtomicInteger conflicts = new AtomicInteger();
+
+        runConcurrently(thread -> () -> {
+            for (int i = 0; i < perThread; i++) {
+                // Read-modify-write with the version read; on 409 re-read and try again
+                while (true) {
+                    Task current = taskRepository.findById(taskId).orElseThrow();
+                    Task change = copyOf(current);
+                    change.setProgress(current.getProgress() + 1);
+                    try {
+                        taskService.updateTask(taskId, change, userId);
+                        break;
+                    } catch (TaskVersionConflictException e) {
+                        conflicts.incrementAndGet();
+                    }
+                }
+            }
+            return null;
+        });
+
+        Task result = taskRepository.findById(taskId).orElseThrow();
+        assertThat(result.getProgress()).isEqualTo(THREADS * perThread);
+        assertThat(result.getVersion()).isEqualTo((long) THREADS * perThread);
+    }
+
+    @Test
+    void staleVersionIsRejected() {
+        Task stale = copyOf(taskRepository.findById(taskId).orElseThrow());
+        taskService.updateTaskStatus(taskId, Map.of("isCompleted", true), userId);
+
+        stale.setTaskTitle("overwrite");
+        assertThatThrownBy(() -> taskService.updateTask(taskId, stale, userId))
+                .isInstanceOf(TaskVersionConflictException.class);
+        assertThatThrownBy(() -> taskService.updateTaskStatus(taskId, Map.of("isImportant", true, "version", stale.getVersion()), userId))
+                .isInstanceOf(TaskVersionConflictException.class);
+        assertThat(taskRepository.findById(taskId).orElseThrow().getTaskTitle()).isEqualTo("contended");
+    }
+
+    private long currentVersion() {
+        return taskRepository.findById(taskId).orElseThrow().getVersion();
+    }
+
+    private static Task copyOf(Task source) {
+        Task copy = new Task();
+        copy.setTaskTitle(source.getTaskTitle());
+        copy.setTaskDescription(source.getTaskDescription());
+        copy.setCategory(source.getCategory());
+        copy.setDueDate(source.getDueDate());
+        copy.setProgress(source.getProgress());
+        copy.setCompleted(source.isCompleted());
+        copy.setImportant(source.isImportant());
+        copy.setVersion(source.getVersion());
+        return copy;
+    }
+
+    private interface Worker {
+        Callable<Void> forThread(int thread);
+    }
+
+    // Starts every worker at the same moment and rethrows the first failure
+    private static void runConcurrently(Worker worker) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                Callable<Void> body = worker.forThread(t);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return body.call();
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.demo.service;
+
+import com.example.demo.TestUsers;
+import com.example.demo.entity.ERole;
+import com.example.demo.entity.Task;
+import com.example.demo.entity.User;
+import com.example.demo.repository.RoleRepository;
+import com.example.demo.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Role and User lookups are answered from the second-level cache, and task writes do not evict it
+@SpringBootTest
+class UserCacheTest {
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private TaskService taskService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private CacheStatisticsService cacheStatisticsService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User user;
+
+    @BeforeEach
+    void createUser() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        user = TestUsers.create(userRepository, roleRepository, "cached");
+    }
+
+    @Test
+    void naturalIdLookupIsServedFromCache() {
+        userRepository.findByNaturalEmail(user.getEmail()).orElseThrow();
+        statistics.clear();
+
+        User loaded = userService.loadUserByUsername(user.getEmail());
+
+        assertThat(loaded.getId()).isEqualTo(user.getId());
+        assertThat(statistics.getNaturalIdCacheHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(cacheStatisticsService.getCacheStats().getNaturalIdCache().getHits()).isEqualTo(1);
+    }
+
+    @Test
+    void roleLookupIsServedFromQueryCache() {
+        roleRepository.findByName(ERole.USER).orElseThrow();
+        statistics.clear();
+
+        roleRepository.findByName(ERole.USER).orElseThrow();
+
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void taskWritesDoNotEvictTheUser() {
+        userRepository.findById(user.getId()).orElseThrow();
+        Task task = new Task();
+        task.setTaskTitle("bump the change counter");
+        task.setTaskDescription("written while the user is cached");
+        taskService.createTask(task, user.getId());
+        long versionAfterWrite = taskService.getTaskVersion(user.getId());
+        statistics.clear();
+
+        userRepository.findById(user.getId()).orElseThrow();
+
+        assertThat(versionAfterWrite).isPositive();
+        assertThat(statistics.getCacheRegionStatistics("user").getHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+}